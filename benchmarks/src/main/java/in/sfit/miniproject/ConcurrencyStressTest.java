@@ -0,0 +1,250 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Checks that concurrent writers lose no update. Writer threads add, complete, reopen and delete
+// tasks and to-dos spread over more months than ScheduleManager keeps in memory, while reader
+// threads query days, ranges and month occupancy. Writers keep the Task and TodoItem objects they
+// added and act through them, so many of the references they use are from months that have been
+// evicted and loaded again since. Each writer records what it expects of its own items; the
+// schedule is compared with that once the writers are done and again after reopening it, in
+// journaled and in plain mode. Exits with 1 on any difference or exception.
+//
+//   java -cp target/benchmarks.jar in.sfit.miniproject.ConcurrencyStressTest [writers] [readers] [operations each] [months]
+//
+// Defaults: 8 writers, 6 readers, 1,500 operations each, over 30 months.
+public final class ConcurrencyStressTest {
+    private static final LocalDate FIRST_DAY = LocalDate.of(2030, 1, 1);
+
+    private ConcurrencyStressTest() {
+    }
+
+    // What one writer has left in the schedule: its items by id with their completed flag.
+    private record Expected(Map<Long, Boolean> tasks, Map<Long, Boolean> todos) {}
+
+    public static void main(String[] args) throws Exception {
+        int writers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int readers = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int operations = args.length > 2 ? Integer.parseInt(args[2]) : 1500;
+        int months = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        boolean passed = true;
+        for (boolean journaled : new boolean[] { true, false }) {
+            Path home = Files.createTempDirectory("planner-stress");
+            try {
+                passed &= run(home, journaled, writers, readers, operations, months);
+            } finally {
+                SyntheticSchedule.delete(home);
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean run(Path home, boolean journaled, int writers, int readers, int operations, int months)
+            throws Exception {
+        String mode = journaled ? "journaled" : "plain";
+        LocalDate lastDay = YearMonth.from(FIRST_DAY).plusMonths(months - 1).atEndOfMonth();
+        int days = (int) (lastDay.toEpochDay() - FIRST_DAY.toEpochDay() + 1);
+        Map<Long, Boolean> tasks = new ConcurrentHashMap<>();
+        Map<Long, Boolean> todos = new ConcurrentHashMap<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicLong reads = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch go = new CountDownLatch(1);
+
+        ScheduleManager manager = new ScheduleManager(home.toFile(), journaled);
+        manager.setErrorHandler(e -> failure.compareAndSet(null, e));
+        long started = System.nanoTime();
+        ExecutorService threads = Executors.newFixedThreadPool(writers + readers);
+        List<Future<Expected>> written = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            written.add(threads.submit(() -> {
+                go.await();
+                return write(manager, new Random(writer), writer, operations, days);
+            }));
+        }
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            threads.execute(() -> {
+                Random random = new Random(-1 - reader);
+                try {
+                    go.await();
+                    while (writing.get()) {
+                        read(manager, random, days);
+                        reads.incrementAndGet();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+        }
+        go.countDown();
+        for (Future<Expected> future : written) {
+            try {
+                Expected expected = future.get();
+                tasks.putAll(expected.tasks());
+                todos.putAll(expected.todos());
+            } catch (Exception e) {
+                failure.compareAndSet(null, e.getCause() != null ? e.getCause() : e);
+            }
+        }
+        writing.set(false);
+        threads.shutdown();
+        threads.awaitTermination(1, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        boolean passed = true;
+        passed &= check(mode + ", live", manager, lastDay, tasks, todos);
+        manager.close();
+        ScheduleManager reopened = new ScheduleManager(home.toFile(), journaled);
+        reopened.setErrorHandler(e -> failure.compareAndSet(null, e));
+        passed &= check(mode + ", reopened", reopened, lastDay, tasks, todos);
+        reopened.close();
+        System.out.printf("%s: %,d writes and %,d reads over %d months in %.1f s%n", mode, writers * operations,
+                reads.get(), months, seconds);
+        if (failure.get() != null) {
+            System.out.println("  failed: " + failure.get());
+            passed = false;
+        }
+        return passed;
+    }
+
+    // Adds tasks and to-dos and changes its own earlier ones; returns what should be left.
+    private static Expected write(ScheduleManager manager, Random random, int writer, int operations, int days) {
+        List<Task> tasks = new ArrayList<>();
+        List<TodoItem> todos = new ArrayList<>();
+        List<LocalDate> todoDates = new ArrayList<>();
+        Map<Long, Boolean> expectedTasks = new HashMap<>();
+        Map<Long, Boolean> expectedTodos = new HashMap<>();
+        for (int i = 0; i < operations; i++) {
+            int roll = random.nextInt(100);
+            if (roll < 45 || tasks.isEmpty()) {
+                LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+                int start = 8 * 60 + 30 * random.nextInt(20);
+                Task task = new Task(date, start, start + 60, "Writer " + writer + " task " + i, "");
+                manager.addTask(task);
+                tasks.add(task);
+                expectedTasks.put(task.getId(), false);
+            } else if (roll < 65) {
+                Task task = tasks.get(random.nextInt(tasks.size()));
+                boolean completed = !expectedTasks.get(task.getId());
+                manager.setTaskCompleted(task, completed);
+                expectedTasks.put(task.getId(), completed);
+            } else if (roll < 75) {
+                Task task = tasks.remove(random.nextInt(tasks.size()));
+                manager.deleteTask(task);
+                expectedTasks.remove(task.getId());
+            } else if (roll < 90 || todos.isEmpty()) {
+                LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+                TodoItem todo = new TodoItem("Writer " + writer + " to-do " + i);
+                manager.addTodo(date, todo);
+                todos.add(todo);
+                todoDates.add(date);
+                expectedTodos.put(todo.getId(), false);
+            } else if (roll < 96) {
+                int index = random.nextInt(todos.size());
+                TodoItem todo = todos.get(index);
+                boolean completed = !expectedTodos.get(todo.getId());
+                manager.setTodoCompleted(todoDates.get(index), todo, completed);
+                expectedTodos.put(todo.getId(), completed);
+            } else {
+                int index = random.nextInt(todos.size());
+                TodoItem todo = todos.remove(index);
+                manager.deleteTodo(todoDates.remove(index), todo);
+                expectedTodos.remove(todo.getId());
+            }
+        }
+        return new Expected(expectedTasks, expectedTodos);
+    }
+
+    // One query of a random kind; throws when the result is inconsistent in itself.
+    private static void read(ScheduleManager manager, Random random, int days) {
+        LocalDate date = FIRST_DAY.plusDays(random.nextInt(days));
+        switch (random.nextInt(3)) {
+            case 0 -> {
+                List<Task> listed = manager.getTasksForDate(date);
+                Set<Long> ids = new HashSet<>();
+                for (Task task : listed) {
+                    if (!task.getDate().equals(date) || !ids.add(task.getId())) {
+                        throw new IllegalStateException(date + " lists " + task.getTaskName() + " wrongly");
+                    }
+                }
+            }
+            case 1 -> {
+                LocalDate to = date.plusDays(6);
+                LocalDate previous = date;
+                Set<Long> ids = new HashSet<>();
+                for (Task task : manager.getTasksBetween(date, to)) {
+                    if (task.getDate().isBefore(previous) || task.getDate().isAfter(to) || !ids.add(task.getId())) {
+                        throw new IllegalStateException("week of " + date + " lists " + task.getTaskName() + " wrongly");
+                    }
+                    previous = task.getDate();
+                }
+            }
+            default -> {
+                YearMonth month = YearMonth.from(date);
+                int occupancy = manager.monthOccupancy(month);
+                if (occupancy >>> month.lengthOfMonth() != 0) {
+                    throw new IllegalStateException(month + " has occupancy bits past its end");
+                }
+            }
+        }
+    }
+
+    private static boolean check(String label, ScheduleManager manager, LocalDate lastDay,
+                                 Map<Long, Boolean> tasks, Map<Long, Boolean> todos) throws IOException {
+        Map<Long, Boolean> storedTasks = new HashMap<>();
+        Map<Long, Boolean> storedTodos = new HashMap<>();
+        manager.forEachDay(FIRST_DAY, lastDay, day -> {
+            day.tasks().forEach(task -> storedTasks.put(task.getId(), task.isCompleted()));
+            day.todos().forEach(todo -> storedTodos.put(todo.getId(), todo.isCompleted()));
+        });
+        String taskDifference = difference(tasks, storedTasks);
+        String todoDifference = difference(todos, storedTodos);
+        boolean passed = taskDifference.isEmpty() && todoDifference.isEmpty();
+        System.out.printf("  %-20s %,7d tasks %,7d to-dos  %s%n", label, storedTasks.size(), storedTodos.size(),
+                passed ? "ok" : "MISMATCH" + taskDifference + todoDifference);
+        return passed;
+    }
+
+    // Empty when both maps hold the same ids with the same flags.
+    private static String difference(Map<Long, Boolean> expected, Map<Long, Boolean> stored) {
+        int missing = 0;
+        int wrong = 0;
+        for (Map.Entry<Long, Boolean> entry : expected.entrySet()) {
+            Boolean completed = stored.get(entry.getKey());
+            if (completed == null) {
+                missing++;
+            } else if (!completed.equals(entry.getValue())) {
+                wrong++;
+            }
+        }
+        int extra = 0;
+        for (Long id : stored.keySet()) {
+            if (!expected.containsKey(id)) {
+                extra++;
+            }
+        }
+        return missing + wrong + extra == 0 ? "" : String.format(" (%d missing, %d extra, %d wrongly completed)", missing, extra, wrong);
+    }
+}
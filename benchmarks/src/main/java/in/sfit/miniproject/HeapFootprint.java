@@ -0,0 +1,115 @@
+package in.sfit.miniproject;
+
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Measures the heap retained by schedule data, to see what StringPool saves. It writes a student
+// timetable as month segments: a dozen course names in hourly slots, with priorities and to-dos
+// copied from them every day. Then it reports the heap retained after a full GC by
+//   - every segment decoded, as loading the months does
+//   - the same number of tasks built one at a time, as journal replay and the dialogs do.
+// Run it once with the pool and once without to compare:
+//
+//   java -XX:+UseSerialGC -cp target/benchmarks.jar in.sfit.miniproject.HeapFootprint [months] [tasks a day]
+//   java -XX:+UseSerialGC -Dplanner.stringPool=false -cp target/benchmarks.jar in.sfit.miniproject.HeapFootprint
+//
+// Defaults: 120 months, 8 tasks a day, with 3 priorities and 2 to-dos a day.
+public final class HeapFootprint {
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2020, 1);
+    private static final String[] COURSES = {
+            "DBMS", "OOP", "Operating Systems", "Computer Networks", "Maths III", "Data Structures",
+            "Microprocessors", "Theory of Computation", "Software Engineering", "AI Lab", "Mini Project", "Library",
+    };
+    private static final int FIRST_HOUR = 8;
+    private static final int HOURS = 12;
+
+    private HeapFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int months = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+        int perDay = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        Path dir = Files.createTempDirectory("planner-heap");
+        try {
+            int tasks = write(dir, months, perDay);
+            System.out.printf("%d months, %,d tasks, string pool %s%n", months, tasks,
+                    "false".equals(System.getProperty("planner.stringPool")) ? "off" : "on");
+
+            long base = retained();
+            List<MonthSegment> decoded = new ArrayList<>();
+            for (int m = 0; m < months; m++) {
+                YearMonth month = FIRST_MONTH.plusMonths(m);
+                decoded.add(ScheduleCodec.readSegment(segmentFile(dir, month), month));
+            }
+            long afterDecoding = retained();
+            System.out.printf("  decoded segments   %6.1f MB%n", (afterDecoding - base) / 1e6);
+
+            List<Task> built = new ArrayList<>(tasks);
+            LocalDate first = FIRST_MONTH.atDay(1);
+            for (int i = 0; i < tasks; i++) {
+                int hour = FIRST_HOUR + i % HOURS;
+                // a fresh copy of the name, as read from a journal record or typed into a dialog
+                built.add(new Task(first.plusDays(i / perDay), hour * 60, hour * 60 + 60,
+                        new String(COURSES[i % COURSES.length]), ""));
+            }
+            long afterBuilding = retained();
+            System.out.printf("  tasks built        %6.1f MB%n", (afterBuilding - afterDecoding) / 1e6);
+            // both must survive the last measurement
+            Reference.reachabilityFence(decoded);
+            Reference.reachabilityFence(built);
+        } finally {
+            SyntheticSchedule.delete(dir);
+        }
+    }
+
+    // Writes one segment file per month and returns the number of tasks in them.
+    private static int write(Path dir, int months, int perDay) throws Exception {
+        Random random = new Random(42);
+        int tasks = 0;
+        for (int m = 0; m < months; m++) {
+            YearMonth month = FIRST_MONTH.plusMonths(m);
+            MonthSegment segment = new MonthSegment(month);
+            for (int day = 1; day <= month.lengthOfMonth(); day++) {
+                LocalDate date = month.atDay(day);
+                for (int t = 0; t < perDay; t++) {
+                    int hour = FIRST_HOUR + random.nextInt(HOURS);
+                    segment.addTask(new Task(date, hour * 60, hour * 60 + 60, new String(course(random)),
+                            random.nextInt(4) == 0 ? "Room " + random.nextInt(20) : ""));
+                    tasks++;
+                }
+                for (int p = 0; p < 3; p++) {
+                    segment.addPriorities(date, List.of(new PriorityItem(new String(course(random)))));
+                }
+                for (int t = 0; t < 2; t++) {
+                    segment.addTodos(date, List.of(new TodoItem("Revise " + course(random))));
+                }
+            }
+            ScheduleCodec.encodeSegment(segment).writeTo(segmentFile(dir, month));
+        }
+        return tasks;
+    }
+
+    private static String course(Random random) {
+        return COURSES[random.nextInt(COURSES.length)];
+    }
+
+    private static Path segmentFile(Path dir, YearMonth month) {
+        return dir.resolve(month + ".seg");
+    }
+
+    // Heap in use after collecting everything unreachable; several rounds so weak entries go too.
+    private static long retained() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
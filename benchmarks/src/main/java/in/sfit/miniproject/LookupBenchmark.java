@@ -0,0 +1,117 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Reads as the UI issues them. "Hot" dates fall in the three months around today, which the
+// application keeps resident; "anywhere" dates are spread over the whole dataset, so most of them
+// load a month and evict another.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LookupBenchmark {
+    private static final int SAMPLES = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int tasks;
+
+    private Path home;
+    private ScheduleManager manager;
+    private final LocalDate[] hotDates = new LocalDate[SAMPLES];
+    private final LocalDate[] anyDates = new LocalDate[SAMPLES];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        home = SyntheticSchedule.scratchCopy(tasks);
+        manager = new ScheduleManager(home.toFile(), true);
+        YearMonth current = YearMonth.from(SyntheticSchedule.today(tasks));
+        manager.preload(List.of(current.minusMonths(1), current, current.plusMonths(1)));
+
+        Random random = new Random(42);
+        LocalDate hotStart = current.minusMonths(1).atDay(1);
+        int hotDays = (int) (current.plusMonths(1).atEndOfMonth().toEpochDay() - hotStart.toEpochDay()) + 1;
+        int span = SyntheticSchedule.spanDays(tasks);
+        for (int i = 0; i < SAMPLES; i++) {
+            hotDates[i] = hotStart.plusDays(random.nextInt(hotDays));
+            anyDates[i] = SyntheticSchedule.FIRST_DAY.plusDays(random.nextInt(span));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        manager.close();
+        SyntheticSchedule.delete(home);
+    }
+
+    private LocalDate hotDate() {
+        return hotDates[next++ & (SAMPLES - 1)];
+    }
+
+    @Benchmark
+    public List<?> tasksForDate() {
+        return manager.getTasksForDate(hotDate());
+    }
+
+    @Benchmark
+    public boolean hasTasksForDate() {
+        return manager.hasTasksForDate(hotDate());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<?> tasksForDateAnywhere() {
+        return manager.getTasksForDate(anyDates[next++ & (SAMPLES - 1)]);
+    }
+
+    // Everything the calendar and the side panels ask for when a date is selected.
+    @Benchmark
+    public void selectDate(Blackhole bh) {
+        LocalDate date = hotDate();
+        bh.consume(manager.monthOccupancy(YearMonth.from(date)));
+        bh.consume(manager.getTasksForDate(date));
+        bh.consume(manager.getPriorities(date));
+        bh.consume(manager.getTodos(date));
+    }
+
+    @Benchmark
+    public List<?> week() {
+        LocalDate date = hotDate();
+        return manager.getTasksBetween(date, date.plusDays(6));
+    }
+
+    @Benchmark
+    public int[] monthCounts() {
+        YearMonth month = YearMonth.from(hotDate());
+        return manager.countTasksPerDay(month.atDay(1), month.atEndOfMonth());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<?> agenda() {
+        return manager.getUpcomingTasks(hotDate(), 9 * 60, 50);
+    }
+}
@@ -0,0 +1,91 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Edits on the resident months, journaled and with whole-segment rewrites. Every add is undone
+// by a delete so the dataset keeps its size; the background writer and journal compactions run
+// as they would in the application and are part of the cost.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class MutationBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int tasks;
+
+    @Param({"true", "false"})
+    public boolean journaled;
+
+    private Path home;
+    private ScheduleManager manager;
+    private final List<LocalDate> dates = new ArrayList<>();
+    private final List<Task> existing = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        home = SyntheticSchedule.scratchCopy(tasks);
+        manager = new ScheduleManager(home.toFile(), journaled);
+        YearMonth current = YearMonth.from(SyntheticSchedule.today(tasks));
+        for (LocalDate date = current.atDay(1); !date.isAfter(current.atEndOfMonth()); date = date.plusDays(1)) {
+            dates.add(date);
+            existing.addAll(manager.getTasksForDate(date));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws IOException {
+        manager.flush();
+        manager.close();
+        SyntheticSchedule.delete(home);
+    }
+
+    private Task newTask() {
+        LocalDate date = dates.get(next++ % dates.size());
+        int start = (8 + next % 10) * 60;
+        return new Task(date, start, start + 60, "Benchmark Lecture", "room 402");
+    }
+
+    @Benchmark
+    public void addAndDelete() {
+        Task task = newTask();
+        manager.addTask(task);
+        manager.deleteTask(task);
+    }
+
+    // The same edit made durable before returning, as on exit or before a backup.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void addAndDeleteFlushed() {
+        addAndDelete();
+        manager.flush();
+    }
+
+    @Benchmark
+    public void toggleCompleted() {
+        Task task = existing.get(next++ % existing.size());
+        manager.setTaskCompleted(task, !task.isCompleted());
+    }
+}
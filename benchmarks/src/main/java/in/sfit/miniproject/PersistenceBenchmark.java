@@ -0,0 +1,87 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Startup and the segment codec. open() is what the application does before its first frame:
+// construct the manager, load the months around today and read the selected date. The codec
+// benchmarks use the month around today, which is as dense as the dataset gets.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PersistenceBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int tasks;
+
+    private Path home;
+    private LocalDate today;
+    private YearMonth month;
+    private Path segmentFile;
+    private Path scratchFile;
+    private MonthSegment segment;
+
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        home = SyntheticSchedule.scratchCopy(tasks);
+        today = SyntheticSchedule.today(tasks);
+        month = YearMonth.from(today);
+        segmentFile = home.resolve("data").resolve(month + ".seg");
+        scratchFile = Files.createTempFile("planner-bench", ".seg");
+        segment = ScheduleCodec.readSegment(segmentFile, month);
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws IOException {
+        Files.deleteIfExists(scratchFile);
+        SyntheticSchedule.delete(home);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<?> open() {
+        ScheduleManager manager = new ScheduleManager(home.toFile(), true);
+        try {
+            manager.preload(List.of(month.minusMonths(1), month, month.plusMonths(1)));
+            return manager.getTasksForDate(today);
+        } finally {
+            manager.close();
+        }
+    }
+
+    @Benchmark
+    public Object readSegment() throws IOException {
+        return ScheduleCodec.readSegment(segmentFile, month);
+    }
+
+    @Benchmark
+    public Object encodeSegment() {
+        return ScheduleCodec.encodeSegment(segment);
+    }
+
+    @Benchmark
+    public void writeSegment() throws IOException {
+        ScheduleCodec.encodeSegment(segment).writeTo(scratchFile);
+    }
+}
@@ -0,0 +1,182 @@
+package in.sfit.miniproject;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Hammers PlannerServer over loopback with thousands of concurrent clients on a synthetic schedule.
+// Each client is a platform thread running requests back to back, in the mix of status bar widgets
+// and scripts: mostly reads of a day near today, some week reads and a few new tasks. All clients
+// start together. After a warm-up round it prints throughput and percentiles per kind of request,
+// as the clients saw them and as the server handled them, and exits with 1 when a request failed
+// or the server missed its latency target (PlannerServer.TARGET_P99_NANOS). The clients never
+// pause, so what they see is mostly queueing: clients divided by throughput.
+//
+//   java -cp target/benchmarks.jar in.sfit.miniproject.ServerLoadTest [clients] [requests each] [tasks]
+//
+// Defaults: 2,000 clients, 50 requests each, 100k tasks. The process may need a higher open file
+// limit (ulimit -n) than the usual 1024 to hold a connection per client.
+public final class ServerLoadTest {
+    private static final String[] KINDS = { "day", "week", "add" };
+    private static final int DAY = 0;
+    private static final int WEEK = 1;
+    private static final int ADD = 2;
+
+    private ServerLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int tasks = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+        Path home = SyntheticSchedule.scratchCopy(tasks);
+        ScheduleManager manager = new ScheduleManager(home.toFile(), true);
+        boolean passed;
+        try (PlannerServer server = new PlannerServer(manager, 0)) {
+            server.start();
+            LocalDate today = SyntheticSchedule.today(tasks);
+            String base = "http://127.0.0.1:" + server.port() + "/api";
+            System.out.printf("%,d tasks, %,d clients x %,d requests%n", tasks, clients, requests);
+            run(base, today, Math.min(clients, 200), requests, null);
+            Metrics.resetAll();
+            passed = run(base, today, clients, requests, System.out);
+        } finally {
+            manager.close();
+            SyntheticSchedule.delete(home);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    // Returns whether every request succeeded within the targets; report is null for the warm-up.
+    private static boolean run(String base, LocalDate today, int clients, int requests,
+                               PrintStream report) throws InterruptedException {
+        long[] nanos = new long[clients * requests];
+        byte[] kinds = new byte[clients * requests];
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<String> firstFailure = new AtomicReference<>();
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(clients);
+        long elapsed;
+        // Platform threads, as separate client processes would be: virtual clients would share the
+        // carrier threads the server's handlers run on and count their own scheduling as server time.
+        try (ExecutorService threads = Executors.newThreadPerTaskExecutor(
+                     Thread.ofPlatform().name("client-", 0).stackSize(256 * 1024).factory());
+             HttpClient http = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(threads)
+                     .connectTimeout(Duration.ofSeconds(30))
+                     .build()) {
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                threads.execute(() -> {
+                    Random random = new Random(client);
+                    ready.countDown();
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        finished.countDown();
+                        return;
+                    }
+                    for (int i = 0; i < requests; i++) {
+                        int slot = client * requests + i;
+                        int roll = random.nextInt(100);
+                        kinds[slot] = (byte) (roll < 80 ? DAY : roll < 95 ? WEEK : ADD);
+                        HttpRequest request = request(base, today.plusDays(random.nextInt(29) - 14), kinds[slot], random);
+                        long start = System.nanoTime();
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status / 100 != 2) {
+                                failures.incrementAndGet();
+                                firstFailure.compareAndSet(null, request.method() + " " + request.uri() + ": " + status);
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                            firstFailure.compareAndSet(null, request.method() + " " + request.uri() + ": " + e);
+                        }
+                        nanos[slot] = System.nanoTime() - start;
+                    }
+                    finished.countDown();
+                });
+            }
+            ready.await();
+            long started = System.nanoTime();
+            go.countDown();
+            // not threads.shutdown(): the client runs its own work on the same executor
+            finished.await();
+            elapsed = System.nanoTime() - started;
+        }
+        if (report == null) {
+            return true;
+        }
+
+        report.printf("%,.0f requests/s, %d failed%n", nanos.length / (elapsed / 1e9), failures.get());
+        if (firstFailure.get() != null) {
+            report.println("first failure: " + firstFailure.get());
+        }
+        report.println("client        count      p50      p90      p99      max   (ms)");
+        for (int kind = 0; kind < KINDS.length; kind++) {
+            long[] sample = select(nanos, kinds, kind);
+            report.printf("  %-8s %,9d %8.2f %8.2f %8.2f %8.2f%n", KINDS[kind], sample.length,
+                    percentile(sample, 0.5) / 1e6, percentile(sample, 0.9) / 1e6,
+                    percentile(sample, 0.99) / 1e6, percentile(sample, 1) / 1e6);
+        }
+        Metrics.Distribution handled = Metrics.HTTP_REQUEST;
+        long serverP99 = handled.percentile(0.99);
+        report.printf("server     %,9d %8.2f %8.2f %8.2f %8.2f%n", handled.count(), handled.percentile(0.5) / 1e6,
+                handled.percentile(0.9) / 1e6, serverP99 / 1e6, handled.max() / 1e6);
+        boolean passed = failures.get() == 0 && serverP99 <= PlannerServer.TARGET_P99_NANOS;
+        report.printf("target: server p99 <= %d ms without failures: %s%n", PlannerServer.TARGET_P99_NANOS / 1_000_000,
+                passed ? "met" : "MISSED");
+        return passed;
+    }
+
+    private static HttpRequest request(String base, LocalDate date, int kind, Random random) {
+        return switch (kind) {
+            case DAY -> HttpRequest.newBuilder(URI.create(base + "/days/" + date)).build();
+            case WEEK -> HttpRequest.newBuilder(URI.create(base + "/tasks?from=" + date + "&to=" + date.plusDays(6)))
+                    .build();
+            default -> {
+                int hour = 8 + random.nextInt(10);
+                String slot = (hour < 10 ? "0" : "") + hour + ":00 - " + (hour + 1 < 10 ? "0" : "") + (hour + 1) + ":00";
+                yield HttpRequest.newBuilder(URI.create(base + "/days/" + date + "/tasks"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"name\":\"Load test\",\"slot\":\"" + slot + "\",\"description\":\"\"}"))
+                        .build();
+            }
+        };
+    }
+
+    private static long[] select(long[] nanos, byte[] kinds, int kind) {
+        long[] sample = new long[nanos.length];
+        int n = 0;
+        for (int i = 0; i < nanos.length; i++) {
+            if (kinds[i] == kind) {
+                sample[n++] = nanos[i];
+            }
+        }
+        sample = Arrays.copyOf(sample, n);
+        Arrays.sort(sample);
+        return sample;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.max(0, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,192 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Builds a planner home directory holding a given number of tasks, written straight to month
+// segments as the manager leaves them after a compaction. The mix follows a student timetable:
+// weekdays are busier than weekends, most slots are an hour long between 8:00 and 18:00, a few
+// dozen course names come back everywhere, and descriptions are often empty and otherwise a
+// sentence or two. A day with tasks often has priorities and to-dos as well.
+final class SyntheticSchedule {
+    private static final long SEED = 20240101L;
+    // bump when the generated data changes so cached datasets are rebuilt
+    private static final int GENERATOR_VERSION = 1;
+    static final LocalDate FIRST_DAY = LocalDate.of(2015, 1, 1);
+
+    private static final String[] COURSES = {
+            "DBMS", "OOP", "Operating Systems", "Computer Networks", "Maths III", "Data Structures",
+            "Microprocessors", "Theory of Computation", "Software Engineering", "AI", "Compiler Design",
+            "Computer Graphics", "Mini Project", "Library", "Gym", "Placement Prep", "Machine Learning",
+            "Cloud Computing", "Cryptography and System Security", "Human Machine Interaction",
+            "Environmental Studies", "Professional Communication and Ethics", "Analysis of Algorithms",
+            "Digital Logic", "Probability and Statistics", "Web Development", "Club Meeting",
+    };
+    private static final String[] KINDS = {
+            "", "", "", " Lecture", " Lab", " Tutorial", " Assignment", " Quiz", " Revision", " Viva",
+    };
+    private static final String[] WORDS = {
+            "room", "402", "bring", "laptop", "submit", "journal", "before", "class", "chapter", "notes",
+            "read", "unit", "practice", "problems", "group", "meet", "at", "canteen", "print", "report",
+            "online", "quiz", "prepare", "slides", "revise", "previous", "papers", "lab", "manual", "sign",
+    };
+    private static final int[] LENGTHS = { 60, 60, 60, 60, 60, 60, 30, 90, 90, 120 };
+
+    private SyntheticSchedule() {
+    }
+
+    // Days covered: about six tasks a day, so 10k tasks span under five years; larger sets get
+    // denser rather than centuries long.
+    static int spanDays(int tasks) {
+        return (int) Math.min(20 * 365L, Math.max(365, tasks / 6));
+    }
+
+    // A date in the middle of the data, standing in for "today".
+    static LocalDate today(int tasks) {
+        return FIRST_DAY.plusDays(spanDays(tasks) / 2);
+    }
+
+    static LocalDate lastDay(int tasks) {
+        return FIRST_DAY.plusDays(spanDays(tasks) - 1);
+    }
+
+    // A private copy of the dataset for one trial; the cached original is built on first use.
+    static Path scratchCopy(int tasks) throws IOException {
+        Path cache = Path.of(System.getProperty("bench.data", "target/bench-data"))
+                .resolve("tasks-" + tasks + "-v" + GENERATOR_VERSION);
+        if (!Files.isDirectory(cache)) {
+            Path building = Files.createDirectories(cache.getParent()).resolve(cache.getFileName() + ".tmp");
+            delete(building);
+            generate(building, tasks);
+            Files.move(building, cache, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Path scratch = Files.createTempDirectory("planner-bench");
+        try (Stream<Path> files = Files.walk(cache)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Path target = scratch.resolve(cache.relativize(file).toString());
+                if (Files.isDirectory(file)) {
+                    Files.createDirectories(target);
+                } else {
+                    Files.copy(file, target);
+                }
+            }
+        }
+        return scratch;
+    }
+
+    static void delete(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    // Writes exactly tasks tasks, one month at a time so even a million never sit in memory at once.
+    static void generate(Path home, int tasks) throws IOException {
+        Random random = new Random(SEED);
+        Path dataDir = Files.createDirectories(home.resolve("data"));
+        IdAllocator ids = new IdAllocator(dataDir.resolve("ids"));
+        int days = spanDays(tasks);
+
+        // each day's share of the tasks: weekends are quieter and some weeks busier than others
+        double[] weights = new double[days];
+        double total = 0;
+        for (int i = 0; i < days; i++) {
+            DayOfWeek weekday = FIRST_DAY.plusDays(i).getDayOfWeek();
+            double base = weekday == DayOfWeek.SUNDAY ? 0.15 : weekday == DayOfWeek.SATURDAY ? 0.35 : 1.0;
+            weights[i] = base * (0.5 + random.nextDouble());
+            total += weights[i];
+        }
+
+        LocalDate today = today(tasks);
+        MonthSegment segment = null;
+        double cumulative = 0;
+        long placed = 0;
+        for (int i = 0; i < days; i++) {
+            LocalDate date = FIRST_DAY.plusDays(i);
+            if (segment == null || !segment.getMonth().equals(YearMonth.from(date))) {
+                write(dataDir, segment);
+                segment = new MonthSegment(YearMonth.from(date));
+            }
+            cumulative += weights[i];
+            long target = Math.round(tasks * cumulative / total);
+            List<Task> dayTasks = new ArrayList<>();
+            for (; placed < target; placed++) {
+                Task task = task(random, date);
+                task.setId(ids.next());
+                task.setCompleted(date.isBefore(today) && random.nextInt(10) < 7);
+                segment.addTask(task);
+                dayTasks.add(task);
+            }
+            if (!dayTasks.isEmpty() && random.nextInt(10) < 4) {
+                for (int p = 1 + random.nextInt(Math.min(3, dayTasks.size())); p > 0; p--) {
+                    PriorityItem priority = new PriorityItem(dayTasks.get(random.nextInt(dayTasks.size())));
+                    priority.setId(ids.next());
+                    segment.addPriority(date, priority);
+                }
+            }
+            if (random.nextInt(10) < 3) {
+                for (int t = 1 + random.nextInt(4); t > 0; t--) {
+                    TodoItem todo = new TodoItem((random.nextBoolean() ? "Revise " : "Finish ") + course(random));
+                    todo.setId(ids.next());
+                    todo.setCompleted(date.isBefore(today) && random.nextBoolean());
+                    segment.addTodo(date, todo);
+                }
+            }
+        }
+        write(dataDir, segment);
+    }
+
+    private static Task task(Random random, LocalDate date) {
+        // starts cluster around midday, on the hour or half past
+        int hour = (int) Math.round(12 + random.nextGaussian() * 3);
+        hour = Math.max(7, Math.min(21, hour));
+        int start = hour * 60 + (random.nextInt(5) == 0 ? 30 : 0);
+        int end = Math.min(TimeSlots.MINUTES_PER_DAY, start + LENGTHS[random.nextInt(LENGTHS.length)]);
+        String name = course(random) + KINDS[random.nextInt(KINDS.length)];
+        return new Task(date, start, end, name, description(random));
+    }
+
+    // Skewed towards the first few courses, the way a timetable repeats its main subjects.
+    private static String course(Random random) {
+        return COURSES[random.nextInt(random.nextInt(COURSES.length) + 1)];
+    }
+
+    private static String description(Random random) {
+        if (random.nextInt(100) < 45) {
+            return "";
+        }
+        int words = 2 + random.nextInt(random.nextInt(30) + 1);
+        StringBuilder text = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            text.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private static void write(Path dataDir, MonthSegment segment) {
+        if (segment == null || segment.isEmpty()) {
+            return;
+        }
+        try {
+            ScheduleCodec.encodeSegment(segment).writeTo(dataDir.resolve(segment.getMonth() + ".seg"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package in.sfit.miniproject;
+
+import javafx.animation.*;
+import javafx.scene.Node;
+import javafx.util.Duration;
+import java.util.function.Supplier;
+
+// All UI animations go through here. Each node keeps its transitions in its properties map and
+// replays them, list entrances are staggered and dropped for long lists, and low-power mode
+// turns every animation into an immediate jump to its end state.
+class Animations {
+    private static final String PREFIX = "animations.";
+    // lists longer than this appear without an entrance animation
+    private static final int ENTRANCE_ITEM_LIMIT = Integer.getInteger("planner.entranceLimit", 40);
+    // at most this many cells animate per load, each starting a stagger after the previous one
+    private static final int STAGGERED_CELLS = 12;
+
+    private boolean lowPower = Boolean.getBoolean("planner.lowPower");
+    private final Duration stagger = Duration.millis(35);
+
+    private boolean entranceOpen;
+    private int entrancesStarted;
+
+    boolean isLowPower() { return lowPower; }
+    void setLowPower(boolean lowPower) { this.lowPower = lowPower; }
+
+    // Starts an entrance batch for a list that is about to show itemCount items; the batch lasts
+    // until endEntrance(), normally one pulse later once the visible cells are bound.
+    void beginEntrance(int itemCount) {
+        entranceOpen = !lowPower && itemCount <= ENTRANCE_ITEM_LIMIT;
+        entrancesStarted = 0;
+    }
+
+    void endEntrance() {
+        entranceOpen = false;
+    }
+
+    // Slides and fades node in if an entrance batch is open, otherwise shows it in place.
+    void entrance(Node node) {
+        ParallelTransition transition = transition(node, "entrance", () -> {
+            TranslateTransition translate = new TranslateTransition(Duration.millis(300), node);
+            translate.setFromX(-50);
+            translate.setToX(0);
+            FadeTransition fade = new FadeTransition(Duration.millis(300), node);
+            fade.setFromValue(0);
+            fade.setToValue(1);
+            return new ParallelTransition(translate, fade);
+        });
+        if (entranceOpen && entrancesStarted < STAGGERED_CELLS) {
+            transition.setDelay(stagger.multiply(entrancesStarted++));
+            // hold the start frame during the delay so the card does not flash in first
+            node.setOpacity(0);
+            transition.playFromStart();
+        } else {
+            settle(node);
+        }
+    }
+
+    // Stops any entrance on node and puts it in its resting state.
+    void settle(Node node) {
+        Animation running = (Animation) node.getProperties().get(PREFIX + "entrance");
+        if (running != null) {
+            running.stop();
+        }
+        node.setTranslateX(0);
+        node.setOpacity(1);
+    }
+
+    void fadeIn(Node node, Duration duration, double fromOpacity) {
+        FadeTransition fade = transition(node, "fade", () -> new FadeTransition(duration, node));
+        fade.setFromValue(fromOpacity);
+        fade.setToValue(1);
+        play(fade, () -> node.setOpacity(1));
+    }
+
+    // Brief scale-up-and-fade used when a view swaps its content.
+    void pop(Node node) {
+        ParallelTransition pop = transition(node, "pop", () -> {
+            ScaleTransition scale = new ScaleTransition(Duration.millis(200), node);
+            scale.setFromX(0.95);
+            scale.setFromY(0.95);
+            scale.setToX(1.0);
+            scale.setToY(1.0);
+            FadeTransition fade = new FadeTransition(Duration.millis(200), node);
+            fade.setFromValue(0.7);
+            fade.setToValue(1.0);
+            return new ParallelTransition(scale, fade);
+        });
+        play(pop, () -> {
+            node.setScaleX(1);
+            node.setScaleY(1);
+            node.setOpacity(1);
+        });
+    }
+
+    // Press feedback for buttons.
+    void press(Node node) {
+        ScaleTransition scale = transition(node, "press", () -> {
+            ScaleTransition t = new ScaleTransition(Duration.millis(100), node);
+            t.setFromX(1.0);
+            t.setFromY(1.0);
+            t.setToX(0.9);
+            t.setToY(0.9);
+            t.setAutoReverse(true);
+            t.setCycleCount(2);
+            return t;
+        });
+        play(scale, () -> {
+            node.setScaleX(1);
+            node.setScaleY(1);
+        });
+    }
+
+    // Grows node while the mouse is over it, sharing one transition between enter and exit.
+    void installHover(Node node, double scale) {
+        node.setOnMouseEntered(e -> hover(node, scale));
+        node.setOnMouseExited(e -> hover(node, 1.0));
+    }
+
+    private void hover(Node node, double scale) {
+        ScaleTransition transition = transition(node, "hover", () -> new ScaleTransition(Duration.millis(100), node));
+        transition.stop();
+        transition.setToX(scale);
+        transition.setToY(scale);
+        play(transition, () -> {
+            node.setScaleX(scale);
+            node.setScaleY(scale);
+        });
+    }
+
+    private void play(Animation animation, Runnable endState) {
+        if (lowPower) {
+            animation.stop();
+            endState.run();
+        } else {
+            animation.playFromStart();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Animation> T transition(Node node, String name, Supplier<T> factory) {
+        return (T) node.getProperties().computeIfAbsent(PREFIX + name, k -> factory.get());
+    }
+}
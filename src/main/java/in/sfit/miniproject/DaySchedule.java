@@ -0,0 +1,101 @@
+package in.sfit.miniproject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Tasks of one day ordered by (start, end), with the running maximum end minute kept alongside
+// so overlap queries binary-search the starts and only walk back over candidates that can overlap.
+class DaySchedule {
+    private final List<Task> tasks = new ArrayList<>();
+    // maxEnd[i] = max end minute of tasks[0..i]; non-decreasing
+    private int[] maxEnd = new int[4];
+    // immutable copy handed out by tasks(), built on first read after a change; readers holding
+    // only the read lock may race to build it, which is harmless
+    private volatile List<Task> snapshot;
+
+    List<Task> tasks() {
+        List<Task> copy = snapshot;
+        if (copy == null) {
+            copy = List.copyOf(tasks);
+            snapshot = copy;
+        }
+        return copy;
+    }
+
+    int size() { return tasks.size(); }
+    Task get(int index) { return tasks.get(index); }
+    boolean isEmpty() { return tasks.isEmpty(); }
+
+    // Inserts after any task with the same range so equal slots keep their insertion order.
+    int add(Task task) {
+        int index = upperBound(task.getStartMinute(), task.getEndMinute());
+        tasks.add(index, task);
+        snapshot = null;
+        rebuildMaxEnd(index);
+        return index;
+    }
+
+    int remove(Task task) {
+        int index = indexOf(task);
+        if (index >= 0) {
+            tasks.remove(index);
+            snapshot = null;
+            rebuildMaxEnd(index);
+        }
+        return index;
+    }
+
+    int indexOf(Task task) {
+        // narrow to tasks with the same start before comparing identities
+        int from = upperBound(task.getStartMinute() - 1, Integer.MAX_VALUE);
+        for (int i = from; i < tasks.size() && tasks.get(i).getStartMinute() == task.getStartMinute(); i++) {
+            if (tasks.get(i) == task) {
+                return i;
+            }
+        }
+        return MonthSegment.indexOfIdentity(tasks, task);
+    }
+
+    // Tasks whose range intersects [start, end), in slot order.
+    List<Task> overlapping(int start, int end) {
+        List<Task> result = new ArrayList<>();
+        int i = upperBound(end - 1, Integer.MAX_VALUE) - 1;
+        for (; i >= 0 && maxEnd[i] > start; i--) {
+            if (tasks.get(i).overlaps(start, end)) {
+                result.add(tasks.get(i));
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    // First index whose (start, end) sorts after the given pair.
+    private int upperBound(int start, int end) {
+        int low = 0;
+        int high = tasks.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Task t = tasks.get(mid);
+            if (t.getStartMinute() < start || (t.getStartMinute() == start && t.getEndMinute() <= end)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void rebuildMaxEnd(int from) {
+        if (maxEnd.length < tasks.size()) {
+            int[] bigger = new int[Math.max(tasks.size(), maxEnd.length * 2)];
+            System.arraycopy(maxEnd, 0, bigger, 0, from);
+            maxEnd = bigger;
+        }
+        int max = from == 0 ? Integer.MIN_VALUE : maxEnd[from - 1];
+        for (int i = from; i < tasks.size(); i++) {
+            max = Math.max(max, tasks.get(i).getEndMinute());
+            maxEnd[i] = max;
+        }
+    }
+}
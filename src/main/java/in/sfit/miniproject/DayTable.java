@@ -0,0 +1,51 @@
+package in.sfit.miniproject;
+
+import java.time.YearMonth;
+
+// Map from epoch day to value for the days of one month, stored in an array by offset from the
+// month's first day, so a lookup is a subtraction and a bounds check with no key object to build.
+final class DayTable<V> {
+    private final long firstDay;
+    private final Object[] values;
+    private int size;
+
+    interface DayConsumer<V> {
+        void accept(long epochDay, V value);
+    }
+
+    DayTable(YearMonth month) {
+        firstDay = month.atDay(1).toEpochDay();
+        values = new Object[month.lengthOfMonth()];
+    }
+
+    // Null when the day has no value or lies outside the month.
+    @SuppressWarnings("unchecked")
+    V get(long epochDay) {
+        long offset = epochDay - firstDay;
+        return offset >= 0 && offset < values.length ? (V) values[(int) offset] : null;
+    }
+
+    // A null value removes the day.
+    void put(long epochDay, V value) {
+        long offset = epochDay - firstDay;
+        if (offset < 0 || offset >= values.length) {
+            throw new IllegalArgumentException("Day " + epochDay + " is outside the table's month");
+        }
+        Object previous = values[(int) offset];
+        values[(int) offset] = value;
+        size += (value != null ? 1 : 0) - (previous != null ? 1 : 0);
+    }
+
+    int size() { return size; }
+    boolean isEmpty() { return size == 0; }
+
+    // Days with a value, in date order.
+    @SuppressWarnings("unchecked")
+    void forEach(DayConsumer<? super V> action) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(firstDay + i, (V) values[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package in.sfit.miniproject;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+// Hidden window (Ctrl+Shift+D) listing the timed operations of Metrics with their percentiles,
+// refreshed every second while it is open. Also owns the probe that measures how long work posted
+// to the FX thread waits.
+class DiagnosticsPanel {
+    private static final long PROBE_MILLIS = 100;
+    // queue delays at least this long are recorded as FxStall events
+    private static final long STALL_NANOS = 50_000_000;
+
+    private record Row(String name, String count, String p50, String p99, String max, String mean) {
+        static Row of(Metrics.Distribution d) {
+            long count = d.count();
+            return new Row(d.name(), String.valueOf(count), format(d, d.percentile(0.5)),
+                    format(d, d.percentile(0.99)), format(d, d.max()), format(d, count == 0 ? 0 : d.sum() / count));
+        }
+    }
+
+    private Stage stage;
+    private TableView<Row> table;
+    private Timeline refresher;
+
+    // Posts a probe to the FX thread every PROBE_MILLIS; only one is outstanding at a time, so a
+    // stalled thread yields one long delay rather than a queue of probes.
+    static void startFxProbe() {
+        AtomicBoolean pending = new AtomicBoolean();
+        ScheduledExecutorService probe = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "fx-probe");
+            t.setDaemon(true);
+            return t;
+        });
+        probe.scheduleWithFixedDelay(() -> {
+            if (!pending.compareAndSet(false, true)) {
+                return;
+            }
+            long posted = System.nanoTime();
+            Platform.runLater(() -> {
+                long delay = System.nanoTime() - posted;
+                pending.set(false);
+                Metrics.FX_DELAY.record(delay);
+                if (delay >= STALL_NANOS && PlannerEvents.available()) {
+                    PlannerEvents.FxStall event = new PlannerEvents.FxStall();
+                    if (event.isEnabled()) {
+                        event.delay = delay;
+                        event.commit();
+                    }
+                }
+            });
+        }, PROBE_MILLIS, PROBE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    void toggle(Window owner) {
+        if (stage == null) {
+            build(owner);
+        }
+        if (stage.isShowing()) {
+            stage.hide();
+        } else {
+            refresh();
+            stage.show();
+            refresher.play();
+        }
+    }
+
+    private void build(Window owner) {
+        stage = new Stage();
+        stage.setTitle("Diagnostics");
+        stage.initOwner(owner);
+
+        VBox content = new VBox(15);
+        content.setPadding(new Insets(20));
+        content.getStyleClass().add("dialog");
+
+        table = new TableView<>();
+        table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY_FLEX_LAST_COLUMN);
+        table.getColumns().add(column("Operation", Row::name, 200));
+        table.getColumns().add(column("Count", Row::count, 70));
+        table.getColumns().add(column("p50", Row::p50, 80));
+        table.getColumns().add(column("p99", Row::p99, 80));
+        table.getColumns().add(column("Max", Row::max, 80));
+        table.getColumns().add(column("Mean", Row::mean, 80));
+        VBox.setVgrow(table, Priority.ALWAYS);
+
+        Label hint = new Label("Times in ms, sizes in KB. Percentiles are within 25%.");
+        hint.getStyleClass().add("form-label");
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        Button resetButton = new Button("Reset");
+        resetButton.getStyleClass().addAll("dialog-button", "cancel-button");
+        resetButton.setOnAction(e -> {
+            Metrics.resetAll();
+            refresh();
+        });
+        HBox footer = new HBox(10, hint, spacer, resetButton);
+        footer.setAlignment(Pos.CENTER_LEFT);
+
+        content.getChildren().addAll(table, footer);
+
+        refresher = new Timeline(new KeyFrame(Duration.seconds(1), e -> refresh()));
+        refresher.setCycleCount(Animation.INDEFINITE);
+        stage.setOnHidden(e -> refresher.stop());
+
+        Scene scene = new Scene(content, 680, 520);
+        scene.getStylesheets().add(getClass().getResource("style.css").toExternalForm());
+        stage.setScene(scene);
+    }
+
+    private static TableColumn<Row, String> column(String title, Function<Row, String> value, double width) {
+        TableColumn<Row, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(cell -> new ReadOnlyStringWrapper(value.apply(cell.getValue())));
+        column.setPrefWidth(width);
+        column.setSortable(false);
+        return column;
+    }
+
+    private void refresh() {
+        List<Row> rows = new ArrayList<>();
+        for (Metrics.Distribution distribution : Metrics.all()) {
+            rows.add(Row.of(distribution));
+        }
+        table.getItems().setAll(rows);
+    }
+
+    private static String format(Metrics.Distribution distribution, long value) {
+        if (distribution.unit() == Metrics.Unit.BYTES) {
+            return String.format("%.1f", value / 1024.0);
+        }
+        return String.format("%.2f", value / 1e6);
+    }
+}
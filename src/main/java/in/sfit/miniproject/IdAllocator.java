@@ -0,0 +1,63 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Hands out ids in blocks. The end of a block is on disk before any id from it is used, so after a
+// restart numbering continues past every id that may have been handed out.
+class IdAllocator {
+    private static final int BLOCK = 4096;
+    private final Path file;
+    private long next;
+    private long limit;
+
+    IdAllocator(Path file) {
+        this.file = file;
+        try {
+            limit = Files.exists(file) ? Long.parseLong(Files.readString(file, StandardCharsets.UTF_8).trim()) : 1;
+        } catch (IOException | NumberFormatException e) {
+            throw new IllegalStateException("Cannot read id counter " + file, e);
+        }
+        next = limit;
+    }
+
+    long next() {
+        if (next >= limit) {
+            reserve(next + BLOCK);
+        }
+        return next++;
+    }
+
+    // Keeps numbering ahead of ids found in loaded data, in case the counter file was lost.
+    void observe(long id) {
+        if (id >= next) {
+            next = id + 1;
+        }
+    }
+
+    private void reserve(long newLimit) {
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer bytes = StandardCharsets.UTF_8.encode(Long.toString(newLimit));
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            ScheduleCodec.syncDirectory(file.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot reserve ids in " + file, e);
+        }
+        limit = newLimit;
+    }
+}
@@ -0,0 +1,6 @@
+package in.sfit.miniproject;
+
+// Items with an id that stays the same across saves, reloads and restarts; 0 means not yet assigned.
+interface Identified {
+    long getId();
+}
@@ -0,0 +1,305 @@
+package in.sfit.miniproject;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Append-only log of schedule mutations. Each log file carries a generation number;
+// a snapshot written with generation G already contains every record of logs <= G.
+// Logs start with "SDPJ" and a version byte; version 2 records carry item ids. Older logs have
+// no header (their first byte is an op) and are read as version 1.
+class Journal implements Closeable {
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    private static final int MAGIC = 0x5344504A; // "SDPJ"
+    private static final int VERSION = 2;
+
+    enum Op { ADD_TASK, DELETE_TASK, COMPLETE_TASK, ADD_PRIORITY, DELETE_PRIORITY, ADD_TODO, DELETE_TODO, COMPLETE_TODO }
+
+    private static final Op[] OPS = Op.values();
+    private static final long MIN_DAY = LocalDate.MIN.toEpochDay();
+    private static final long MAX_DAY = LocalDate.MAX.toEpochDay();
+
+    // id is the added item's id; taskId is the task an added priority points at
+    record Entry(Op op, long epochDay, int index, boolean flag, long id, long taskId,
+                 String slot, String text, String description) {
+        static Entry addTask(Task task) {
+            return new Entry(Op.ADD_TASK, task.getDate().toEpochDay(), -1, task.isCompleted(), task.getId(), 0,
+                    task.getTimeSlot(), task.getTaskName(), task.getDescription());
+        }
+
+        static Entry addPriority(long epochDay, PriorityItem priority) {
+            return new Entry(Op.ADD_PRIORITY, epochDay, -1, false, priority.getId(), priority.getTaskId(),
+                    null, priority.getText(), null);
+        }
+
+        static Entry addTodo(long epochDay, TodoItem todo) {
+            return new Entry(Op.ADD_TODO, epochDay, -1, todo.isCompleted(), todo.getId(), 0, null, todo.getText(), null);
+        }
+
+        static Entry at(Op op, long epochDay, int index, boolean flag) {
+            return new Entry(op, epochDay, index, flag, 0, 0, null, null, null);
+        }
+    }
+
+    private final File directory;
+    private long generation;
+    private FileOutputStream file;
+    private DataOutputStream out;
+
+    Journal(File directory) {
+        this.directory = directory;
+    }
+
+    // Orders records across logs: the generation of the log in the high half, the record's
+    // position within that log in the low half.
+    static long sequence(long generation, int position) {
+        return (generation << 32) | position;
+    }
+
+    static long generationOf(long sequence) {
+        return sequence >>> 32;
+    }
+
+    // Replays every log newer than minGeneration, oldest first, then opens a fresh log.
+    // The consumer receives the sequence number of each entry. A log ending in a torn or damaged
+    // record is read up to that record and the damage handed to torn. When a log cannot be read,
+    // the records before it have been handed over, the fresh log is still opened and the error thrown.
+    void replay(long minGeneration, EntryConsumer consumer, Consumer<IOException> torn) throws IOException {
+        List<Long> gens = listGenerations();
+        long latest = gens.isEmpty() ? minGeneration : Math.max(minGeneration, gens.get(gens.size() - 1));
+        try {
+            for (long gen : gens) {
+                File log = logFile(gen);
+                if (log.length() <= 5) {
+                    // left behind by a session that made no changes
+                    log.delete();
+                } else if (gen > minGeneration) {
+                    int[] position = new int[1];
+                    readLog(log, entry -> consumer.accept(sequence(gen, position[0]++), entry), torn);
+                }
+            }
+        } finally {
+            // always start a new log: appending after a torn record would hide everything written later
+            open(latest + 1);
+        }
+    }
+
+    void appendAll(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        PlannerEvents.JournalWrite event = PlannerEvents.begin(PlannerEvents.JournalWrite::new);
+        int before = out.size();
+        for (Entry entry : entries) {
+            write(out, entry);
+        }
+        out.flush();
+        int bytes = out.size() - before;
+        Metrics.JOURNAL_WRITE.stop(start);
+        Metrics.JOURNAL_BYTES.record(bytes);
+        if (event != null && event.shouldCommit()) {
+            event.records = entries.size();
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    // Starts a new log and returns the generation that was closed; a snapshot taken now
+    // belongs to that generation. The closed log is forced to disk first, since its records are
+    // all that rebuild the months until their snapshots are written.
+    long rotate() throws IOException {
+        long closed = generation;
+        out.flush();
+        file.getChannel().force(true);
+        out.close();
+        open(closed + 1);
+        return closed;
+    }
+
+    // Drops logs whose records are all covered by a snapshot of the given generation.
+    void discardUpTo(long snapshotGeneration) {
+        for (long gen : listGenerations()) {
+            if (gen <= snapshotGeneration) {
+                logFile(gen).delete();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    long getGeneration() { return generation; }
+
+    interface EntryConsumer {
+        void accept(long sequence, Entry entry);
+    }
+
+    private void open(long gen) throws IOException {
+        generation = gen;
+        File log = logFile(gen);
+        boolean fresh = log.length() == 0;
+        file = new FileOutputStream(log, true);
+        out = new DataOutputStream(new BufferedOutputStream(file));
+        if (fresh) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+        }
+    }
+
+    private File logFile(long gen) {
+        return new File(directory, PREFIX + gen + SUFFIX);
+    }
+
+    private List<Long> listGenerations() {
+        List<Long> gens = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(PREFIX) && name.endsWith(SUFFIX)) {
+                    try {
+                        gens.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        gens.sort(null);
+        return gens;
+    }
+
+    private static void readLog(File file, Consumer<Entry> consumer, Consumer<IOException> torn) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            int version = 1;
+            in.mark(4);
+            try {
+                if (in.readInt() == MAGIC) {
+                    version = in.readUnsignedByte();
+                } else {
+                    in.reset();
+                }
+            } catch (EOFException e) {
+                return;
+            }
+            if (version > VERSION) {
+                throw new IOException(file + " was written by a newer version (journal " + version + ")");
+            }
+            long length = file.length();
+            for (int records = 0; ; records++) {
+                long good = length - in.available();
+                int op = in.read();
+                if (op < 0) {
+                    return;
+                }
+                Entry entry;
+                try {
+                    entry = read(in, op, version);
+                } catch (EOFException | StreamCorruptedException e) {
+                    // a record torn by a crash mid-write, or garbage after the last good record; it is
+                    // cut off so the next start does not trip over it again
+                    in.close();
+                    try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+                        log.setLength(good);
+                    }
+                    torn.accept(new IOException(file.getName() + " ends in a damaged record after " + records
+                            + " records; the rest of it was dropped", e));
+                    return;
+                }
+                consumer.accept(entry);
+            }
+        }
+    }
+
+    private static void write(DataOutputStream out, Entry entry) throws IOException {
+        out.writeByte(entry.op().ordinal());
+        out.writeLong(entry.epochDay());
+        switch (entry.op()) {
+            case ADD_TASK -> {
+                out.writeLong(entry.id());
+                writeString(out, entry.slot());
+                writeString(out, entry.text());
+                writeString(out, entry.description());
+                out.writeBoolean(entry.flag());
+            }
+            case ADD_PRIORITY -> {
+                out.writeLong(entry.id());
+                out.writeLong(entry.taskId());
+                writeString(out, entry.text());
+            }
+            case ADD_TODO -> {
+                out.writeLong(entry.id());
+                writeString(out, entry.text());
+                out.writeBoolean(entry.flag());
+            }
+            case DELETE_TASK, DELETE_PRIORITY, DELETE_TODO -> out.writeInt(entry.index());
+            case COMPLETE_TASK, COMPLETE_TODO -> {
+                out.writeInt(entry.index());
+                out.writeBoolean(entry.flag());
+            }
+        }
+    }
+
+    private static Entry read(DataInputStream in, int ordinal, int version) throws IOException {
+        if (ordinal >= OPS.length) {
+            throw new StreamCorruptedException("unknown op " + ordinal);
+        }
+        Op op = OPS[ordinal];
+        long epochDay = in.readLong();
+        if (epochDay < MIN_DAY || epochDay > MAX_DAY) {
+            throw new StreamCorruptedException("day " + epochDay);
+        }
+        // version 1 adds carry no id; the item gets one when its month is loaded
+        long id = version >= 2 && (op == Op.ADD_TASK || op == Op.ADD_PRIORITY || op == Op.ADD_TODO) ? in.readLong() : 0;
+        return switch (op) {
+            case ADD_TASK -> {
+                String slot = readString(in);
+                String text = readString(in);
+                String description = readString(in);
+                yield new Entry(op, epochDay, -1, in.readBoolean(), id, 0, slot, text, description);
+            }
+            case ADD_PRIORITY -> {
+                long taskId = version >= 2 ? in.readLong() : 0;
+                yield new Entry(op, epochDay, -1, false, id, taskId, null, readString(in), null);
+            }
+            case ADD_TODO -> {
+                String text = readString(in);
+                yield new Entry(op, epochDay, -1, in.readBoolean(), id, 0, null, text, null);
+            }
+            case DELETE_TASK, DELETE_PRIORITY, DELETE_TODO -> Entry.at(op, epochDay, readIndex(in), false);
+            case COMPLETE_TASK, COMPLETE_TODO -> Entry.at(op, epochDay, readIndex(in), in.readBoolean());
+        };
+    }
+
+    private static int readIndex(DataInputStream in) throws IOException {
+        int index = in.readInt();
+        if (index < 0) {
+            throw new StreamCorruptedException("index " + index);
+        }
+        return index;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        // available() is what is left of the file, so a damaged length is caught before allocating
+        if (length < 0 || length > in.available()) {
+            throw new StreamCorruptedException("string of " + length + " bytes");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -1,35 +1,69 @@
 package in.sfit.miniproject;
 
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.scene.Node;
 import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyCodeCombination;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.*;
 import javafx.scene.control.*;
 import javafx.geometry.*;
 import javafx.animation.*;
 import javafx.util.Duration;
+import javafx.util.StringConverter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.*;
 import java.time.format.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Main extends Application {
     private ScheduleManager scheduleManager;
     private LocalDate currentDate;
     private LocalDate displayMonth;
-    private VBox scheduleContainer;
-    private VBox prioritiesArea;
-    private VBox todoArea;
+    // virtualized lists: only visible rows get a cell, and cells are re-bound as they scroll
+    private ListView<Task> scheduleList;
+    private ListView<PriorityItem> priorityList;
+    private ListView<TodoItem> todoList;
+    private final Animations animations = new Animations();
     private Label headerDateLabel;
+    private TextField searchField;
+    private Button importButton;
+    private Button exportButton;
     private GridPane calendarGrid;
     private Label monthYearLabel;
-    private Map<LocalDate, Button> dateButtons;
+    // six weeks of day cells, created once and re-bound to dates as the month changes
+    private final Button[] dayCells = new Button[42];
+    private final LocalDate[] cellDates = new LocalDate[42];
+    private int firstCellOffset;
+    // the schedule panel shows the selected day, its week, or what is coming up
+    private enum ScheduleView { DAY, WEEK, AGENDA }
+    private static final int AGENDA_SIZE = 50;
+    private ScheduleView scheduleView = ScheduleView.DAY;
+    private final Map<ScheduleView, Node> scheduleViews = new EnumMap<>(ScheduleView.class);
+    private final Map<ScheduleView, ToggleButton> viewToggles = new EnumMap<>(ScheduleView.class);
+    private final Button[] weekHeaders = new Button[7];
+    private final VBox[] weekColumns = new VBox[7];
+    private ListView<Task> agendaList;
+    private boolean rangeRefreshPending;
+    // schedule changes from other threads waiting for the FX thread
+    private final List<ScheduleChange> queuedChanges = new ArrayList<>();
+    private static final int QUEUED_CHANGES_BEFORE_RELOAD = 64;
+    private boolean redrawPending;
+    private final DiagnosticsPanel diagnostics = new DiagnosticsPanel();
+    // the local HTTP API, when started with --api-port=<port>
+    private PlannerServer server;
 
     @Override
     public void start(Stage primaryStage) {
-        scheduleManager = new ScheduleManager();
         currentDate = LocalDate.now();
         displayMonth = LocalDate.now();
-        dateButtons = new HashMap<>();
 
         BorderPane root = new BorderPane();
         root.getStyleClass().add("root");
@@ -53,22 +87,92 @@ public class Main extends Application {
         VBox rightPanel = createRightPanel();
 
         mainContent.getChildren().addAll(leftPanel, centerPanel, rightPanel);
-        root.setCenter(mainContent);
+
+        // the window shows at once; the schedule is read in the background under this overlay
+        VBox loadingPane = new VBox(15);
+        loadingPane.getStyleClass().add("loading-pane");
+        loadingPane.setAlignment(Pos.CENTER);
+        Label loadingLabel = new Label("Loading your schedule...");
+        loadingLabel.getStyleClass().add("empty-label");
+        loadingPane.getChildren().addAll(new ProgressIndicator(), loadingLabel);
+        mainContent.setDisable(true);
+        searchField.setDisable(true);
+        importButton.setDisable(true);
+        exportButton.setDisable(true);
+
+        StackPane center = new StackPane(mainContent, loadingPane);
+        root.setCenter(center);
 
         Scene scene = new Scene(root, 1400, 850);
         scene.getStylesheets().add(getClass().getResource("style.css").toExternalForm());
+        scene.getAccelerators().put(new KeyCodeCombination(KeyCode.D, KeyCombination.SHORTCUT_DOWN,
+                KeyCombination.SHIFT_DOWN), () -> diagnostics.toggle(primaryStage));
+        DiagnosticsPanel.startFxProbe();
 
         primaryStage.setTitle("Student Daily Planner");
         primaryStage.setScene(scene);
         primaryStage.show();
 
-        loadTodaySchedule();
-
         // Entrance animation
-        FadeTransition fade = new FadeTransition(Duration.millis(600), root);
-        fade.setFromValue(0);
-        fade.setToValue(1);
-        fade.play();
+        animations.fadeIn(root, Duration.millis(600), 0);
+
+        YearMonth month = YearMonth.from(currentDate);
+        Thread startup = new Thread(() -> {
+            try {
+                ScheduleManager manager = new ScheduleManager();
+                manager.preload(List.of(month, month.minusMonths(1), month.plusMonths(1)));
+                Platform.runLater(() -> {
+                    onScheduleLoaded(manager);
+                    mainContent.setDisable(false);
+                    center.getChildren().remove(loadingPane);
+                });
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> {
+                    showAlert("Load Failed", "Your schedule could not be loaded: " + e.getMessage(), Alert.AlertType.ERROR);
+                    Platform.exit();
+                });
+            }
+        }, "schedule-startup");
+        startup.setDaemon(true);
+        startup.start();
+    }
+
+    // Wires the loaded manager in and fills the views that were shown empty while loading.
+    private void onScheduleLoaded(ScheduleManager manager) {
+        scheduleManager = manager;
+        scheduleManager.setErrorHandler(e -> Platform.runLater(() ->
+                showAlert("Storage Problem", "Your schedule could not be read or saved.\n\n" + e.getMessage(), Alert.AlertType.ERROR)));
+        scheduleManager.addListener(this::onScheduleChanged);
+        searchField.setDisable(false);
+        importButton.setDisable(false);
+        exportButton.setDisable(false);
+        updateCalendar();
+        loadScheduleForDate(currentDate);
+        startServer(getParameters().getNamed().get("api-port"));
+    }
+
+    private void startServer(String port) {
+        if (port == null) {
+            return;
+        }
+        try {
+            server = new PlannerServer(scheduleManager, Integer.parseInt(port));
+            server.start();
+        } catch (IOException | IllegalArgumentException e) {
+            showAlert("Local API Not Started", "The local API could not listen on port " + port + ": " + e.getMessage(),
+                    Alert.AlertType.WARNING);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (server != null) {
+            server.close();
+        }
+        // wait for pending writes so nothing is lost on exit
+        if (scheduleManager != null) {
+            scheduleManager.close();
+        }
     }
 
     private HBox createHeader() {
@@ -83,15 +187,219 @@ public class Main extends Application {
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
 
+        searchField = new TextField();
+        searchField.getStyleClass().add("search-field");
+        searchField.setPromptText("🔍 Search tasks and to-dos...");
+        searchField.setPrefWidth(280);
+        ContextMenu searchResults = new ContextMenu();
+        searchField.textProperty().addListener((obs, oldText, text) -> showSearchResults(searchField, searchResults, text));
+
+        Region dateSpacer = new Region();
+        dateSpacer.setMinWidth(20);
+
         headerDateLabel = new Label();
         headerDateLabel.getStyleClass().add("header-date");
         updateHeaderDate();
 
-        header.getChildren().addAll(title, spacer, headerDateLabel);
+        importButton = new Button("📥");
+        importButton.getStyleClass().add("icon-button");
+        importButton.setTooltip(new Tooltip("Import a timetable (CSV or iCalendar)"));
+        importButton.setOnAction(e -> importTimetable());
+
+        exportButton = new Button("📤");
+        exportButton.getStyleClass().add("icon-button");
+        exportButton.setTooltip(new Tooltip("Export your schedule (iCalendar, CSV or JSON)"));
+        exportButton.setOnAction(e -> showExportDialog());
+
+        ToggleButton lowPowerToggle = new ToggleButton("🍃");
+        lowPowerToggle.getStyleClass().addAll("icon-button", "complete-button");
+        lowPowerToggle.setTooltip(new Tooltip("Low-power mode: turn animations off"));
+        lowPowerToggle.setSelected(animations.isLowPower());
+        lowPowerToggle.selectedProperty().addListener((obs, was, on) -> animations.setLowPower(on));
+
+        Region toggleSpacer = new Region();
+        toggleSpacer.setMinWidth(10);
+
+        header.getChildren().addAll(title, spacer, searchField, dateSpacer, headerDateLabel, toggleSpacer, importButton, exportButton, lowPowerToggle);
 
         return header;
     }
 
+    // Reads the chosen file off the FX thread; the views pick the new tasks up from change events.
+    private void importTimetable() {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import Timetable");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("Timetables (*.csv, *.ics)", "*.csv", "*.ics", "*.ical"),
+                new FileChooser.ExtensionFilter("All files", "*.*"));
+        File file = chooser.showOpenDialog(importButton.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        importButton.setDisable(true);
+        Thread worker = new Thread(() -> {
+            try {
+                TimetableImporter.Result result = TimetableImporter.importFile(scheduleManager, file.toPath());
+                Platform.runLater(() -> showAlert("Import Finished", result.summary(),
+                        result.rejected() > 0 ? Alert.AlertType.WARNING : Alert.AlertType.INFORMATION));
+            } catch (IOException | RuntimeException e) {
+                Platform.runLater(() -> showAlert("Import Failed", file.getName() + " could not be read: " + e.getMessage(),
+                        Alert.AlertType.ERROR));
+            } finally {
+                Platform.runLater(() -> importButton.setDisable(false));
+            }
+        }, "timetable-import");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    // Picks a date range and format, then writes the file off the FX thread with a progress bar.
+    private void showExportDialog() {
+        Stage dialog = new Stage();
+        dialog.setTitle("Export Schedule");
+        dialog.initOwner(exportButton.getScene().getWindow());
+
+        VBox content = new VBox(20);
+        content.setPadding(new Insets(30));
+        content.getStyleClass().add("dialog");
+
+        GridPane form = new GridPane();
+        form.setHgap(15);
+        form.setVgap(15);
+
+        Label fromLabel = new Label("📅 From:");
+        fromLabel.getStyleClass().add("form-label");
+        DatePicker fromPicker = new DatePicker(currentDate.withDayOfYear(1));
+        fromPicker.getStyleClass().add("date-picker");
+
+        Label toLabel = new Label("📅 To:");
+        toLabel.getStyleClass().add("form-label");
+        DatePicker toPicker = new DatePicker(currentDate.withDayOfYear(1).plusYears(1).minusDays(1));
+        toPicker.getStyleClass().add("date-picker");
+
+        Label formatLabel = new Label("📄 Format:");
+        formatLabel.getStyleClass().add("form-label");
+        ComboBox<ScheduleExporter.Format> formatCombo = new ComboBox<>();
+        formatCombo.getStyleClass().add("combo-box");
+        formatCombo.getItems().addAll(ScheduleExporter.Format.values());
+        formatCombo.setValue(ScheduleExporter.Format.ICS);
+
+        form.add(fromLabel, 0, 0);
+        form.add(fromPicker, 1, 0);
+        form.add(toLabel, 0, 1);
+        form.add(toPicker, 1, 1);
+        form.add(formatLabel, 0, 2);
+        form.add(formatCombo, 1, 2);
+
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+        progressBar.setVisible(false);
+
+        HBox buttonBox = new HBox(10);
+        buttonBox.setAlignment(Pos.CENTER_RIGHT);
+
+        Button saveButton = new Button("✓ Export");
+        saveButton.getStyleClass().addAll("dialog-button", "save-button");
+
+        Button cancelButton = new Button("✗ Cancel");
+        cancelButton.getStyleClass().addAll("dialog-button", "cancel-button");
+
+        saveButton.setOnAction(e -> {
+            LocalDate from = fromPicker.getValue();
+            LocalDate to = toPicker.getValue();
+            if (from == null || to == null || to.isBefore(from)) {
+                showAlert("Error", "Please pick a range whose end is not before its start!", Alert.AlertType.ERROR);
+                return;
+            }
+            ScheduleExporter.Format format = formatCombo.getValue();
+            FileChooser chooser = new FileChooser();
+            chooser.setTitle("Export Schedule");
+            chooser.setInitialFileName("schedule-" + from + "-to-" + to + "." + format.extension);
+            chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(format.label, "*." + format.extension));
+            File file = chooser.showSaveDialog(dialog);
+            if (file == null) {
+                return;
+            }
+            form.setDisable(true);
+            saveButton.setDisable(true);
+            progressBar.setVisible(true);
+            Thread worker = new Thread(() -> {
+                try {
+                    int days = ScheduleExporter.export(scheduleManager, from, to, format, file.toPath(),
+                            done -> Platform.runLater(() -> progressBar.setProgress(done)));
+                    Platform.runLater(() -> {
+                        dialog.close();
+                        showAlert("Export Finished", "Exported " + days + " day" + (days == 1 ? "" : "s")
+                                + " to " + file.getName() + ".", Alert.AlertType.INFORMATION);
+                    });
+                } catch (IOException | RuntimeException ex) {
+                    Platform.runLater(() -> {
+                        form.setDisable(false);
+                        saveButton.setDisable(false);
+                        progressBar.setVisible(false);
+                        showAlert("Export Failed", file.getName() + " could not be written: " + ex.getMessage(),
+                                Alert.AlertType.ERROR);
+                    });
+                }
+            }, "schedule-export");
+            worker.setDaemon(true);
+            worker.start();
+        });
+
+        cancelButton.setOnAction(e -> dialog.close());
+
+        buttonBox.getChildren().addAll(saveButton, cancelButton);
+        content.getChildren().addAll(form, progressBar, buttonBox);
+
+        Scene scene = new Scene(content, 420, 320);
+        scene.getStylesheets().add(getClass().getResource("style.css").toExternalForm());
+        dialog.setScene(scene);
+        dialog.show();
+    }
+
+    private void showSearchResults(TextField searchField, ContextMenu searchResults, String query) {
+        searchResults.getItems().clear();
+        if (query.isBlank()) {
+            searchResults.hide();
+            return;
+        }
+
+        NavigableSet<LocalDate> dates = scheduleManager.search(query);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE, MMM dd, yyyy");
+        // most recent matches first
+        for (LocalDate date : dates.descendingSet()) {
+            if (searchResults.getItems().size() == 15) {
+                break;
+            }
+            MenuItem item = new MenuItem(date.format(formatter));
+            item.setOnAction(e -> goToDate(date));
+            searchResults.getItems().add(item);
+        }
+        if (dates.size() > 15) {
+            MenuItem more = new MenuItem("… " + (dates.size() - 15) + " more, refine your search");
+            more.setDisable(true);
+            searchResults.getItems().add(more);
+        }
+        if (dates.isEmpty()) {
+            MenuItem none = new MenuItem(scheduleManager.isSearchReady() ? "No matches" : "No matches yet, still indexing...");
+            none.setDisable(true);
+            searchResults.getItems().add(none);
+        }
+        if (!searchResults.isShowing()) {
+            searchResults.show(searchField, Side.BOTTOM, 0, 4);
+        }
+    }
+
+    private void goToDate(LocalDate date) {
+        currentDate = date;
+        displayMonth = date;
+        updateHeaderDate();
+        updateMonthLabel();
+        updateCalendar();
+        loadScheduleForDate(date);
+        animateCalendar();
+    }
+
     private void updateHeaderDate() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEEE, MMMM dd, yyyy");
         headerDateLabel.setText(currentDate.format(formatter));
@@ -143,6 +451,7 @@ public class Main extends Application {
         calendarGrid.setVgap(8);
         calendarGrid.setAlignment(Pos.CENTER);
 
+        createDayCells();
         updateCalendar();
 
         // Today Button
@@ -169,86 +478,98 @@ public class Main extends Application {
     }
 
     private void animateCalendar() {
-        ScaleTransition scale = new ScaleTransition(Duration.millis(200), calendarGrid);
-        scale.setFromX(0.95);
-        scale.setFromY(0.95);
-        scale.setToX(1.0);
-        scale.setToY(1.0);
-
-        FadeTransition fade = new FadeTransition(Duration.millis(200), calendarGrid);
-        fade.setFromValue(0.7);
-        fade.setToValue(1.0);
-
-        ParallelTransition parallel = new ParallelTransition(scale, fade);
-        parallel.play();
+        animations.pop(calendarGrid);
     }
 
-    private void updateCalendar() {
-        calendarGrid.getChildren().clear();
-        dateButtons.clear();
-
-        // Get first day of month - CHANGE: use displayMonth
-        LocalDate firstDay = displayMonth.withDayOfMonth(1);
-        int firstDayOfWeek = firstDay.getDayOfWeek().getValue();
-
-        // Add day buttons - CHANGE: use displayMonth
-        int daysInMonth = displayMonth.lengthOfMonth();
-        LocalDate today = LocalDate.now();
-
-        int row = 1;
-        int col = firstDayOfWeek - 1;
-
-        for (int day = 1; day <= daysInMonth; day++) {
-            LocalDate date = displayMonth.withDayOfMonth(day);  // CHANGE: use displayMonth
-            Button dayButton = new Button(String.valueOf(day));
+    private void createDayCells() {
+        for (int i = 0; i < dayCells.length; i++) {
+            Button dayButton = new Button();
             dayButton.getStyleClass().add("day-button");
             dayButton.setMinWidth(38);
             dayButton.setMaxWidth(38);
             dayButton.setMinHeight(38);
             dayButton.setMaxHeight(38);
 
-            if (date.equals(today)) {
-                dayButton.getStyleClass().add("today");
-            } else if (date.equals(currentDate)) {  // This now correctly compares full dates
-                dayButton.getStyleClass().add("selected");
-            }
+            final int cell = i;
+            dayButton.setOnAction(e -> selectDate(cellDates[cell]));
+
+            // Hover animation
+            animations.installHover(dayButton, 1.1);
+
+            dayCells[i] = dayButton;
+            calendarGrid.add(dayButton, i % 7, 1 + i / 7);
+        }
+    }
+
+    // Re-binds the cell pool to displayMonth; no nodes are created or removed.
+    private void updateCalendar() {
+        long start = System.nanoTime();
+        PlannerEvents.Render event = PlannerEvents.begin(PlannerEvents.Render::new);
+        LocalDate firstDay = displayMonth.withDayOfMonth(1);
+        firstCellOffset = firstDay.getDayOfWeek().getValue() - 1;
+        int daysInMonth = displayMonth.lengthOfMonth();
+        // before startup loading finishes the grid shows dates only
+        int occupancy = 0;
+        if (scheduleManager != null) {
+            occupancy = scheduleManager.monthOccupancy(YearMonth.from(displayMonth));
+            scheduleManager.prefetchAround(YearMonth.from(displayMonth));
+        }
 
-            if (scheduleManager.hasTasksForDate(date)) {
-                dayButton.getStyleClass().add("has-tasks");
+        for (int i = 0; i < dayCells.length; i++) {
+            Button dayButton = dayCells[i];
+            int day = i - firstCellOffset + 1;
+            boolean inMonth = day >= 1 && day <= daysInMonth;
+            // cells outside the month give up their space so short months do not leave an empty row
+            dayButton.setVisible(inMonth);
+            dayButton.setManaged(inMonth);
+            if (!inMonth) {
+                cellDates[i] = null;
+                continue;
             }
 
-            final LocalDate selectedDate = date;
-            dayButton.setOnAction(e -> {
-                currentDate = selectedDate;
-                updateHeaderDate();
-                loadScheduleForDate(selectedDate);
-                updateMonthLabel();
-                updateCalendar();
-            });
+            LocalDate date = firstDay.plusDays(day - 1);
+            cellDates[i] = date;
+            dayButton.setText(String.valueOf(day));
+            styleDayCell(dayButton, date);
+            setStyleClass(dayButton, "has-tasks", (occupancy & (1 << (day - 1))) != 0);
+        }
+        rendered(Metrics.CALENDAR_RENDER, event, start, "calendar", daysInMonth);
+    }
 
-            // Hover animation
-            dayButton.setOnMouseEntered(e -> {
-                ScaleTransition st = new ScaleTransition(Duration.millis(100), dayButton);
-                st.setToX(1.1);
-                st.setToY(1.1);
-                st.play();
-            });
+    private void styleDayCell(Button dayButton, LocalDate date) {
+        boolean today = date.equals(LocalDate.now());
+        setStyleClass(dayButton, "today", today);
+        setStyleClass(dayButton, "selected", !today && date.equals(currentDate));
+    }
 
-            dayButton.setOnMouseExited(e -> {
-                ScaleTransition st = new ScaleTransition(Duration.millis(100), dayButton);
-                st.setToX(1.0);
-                st.setToY(1.0);
-                st.play();
-            });
+    // Selecting a day in the displayed month only restyles the old and the new cell.
+    private void selectDate(LocalDate date) {
+        LocalDate previous = currentDate;
+        currentDate = date;
+        Button previousCell = cellFor(previous);
+        if (previousCell != null) {
+            styleDayCell(previousCell, previous);
+        }
+        styleDayCell(cellFor(date), date);
 
-            dateButtons.put(date, dayButton);
-            calendarGrid.add(dayButton, col, row);
+        updateHeaderDate();
+        loadScheduleForDate(date);
+        updateMonthLabel();
+    }
 
-            col++;
-            if (col > 6) {
-                col = 0;
-                row++;
-            }
+    private Button cellFor(LocalDate date) {
+        if (date == null || date.getYear() != displayMonth.getYear() || date.getMonth() != displayMonth.getMonth()) {
+            return null;
+        }
+        return dayCells[firstCellOffset + date.getDayOfMonth() - 1];
+    }
+
+    private static void setStyleClass(Node node, String styleClass, boolean present) {
+        boolean has = node.getStyleClass().contains(styleClass);
+        if (present && !has) {
+            node.getStyleClass().add(styleClass);
+        } else if (!present && has) {
+            node.getStyleClass().remove(styleClass);
         }
     }
 
@@ -271,23 +592,171 @@ public class Main extends Application {
         addButton.getStyleClass().add("add-button");
         addButton.setOnAction(e -> showAddTaskDialog());
 
-        scheduleHeader.getChildren().addAll(scheduleLabel, spacer, addButton);
+        HBox viewSwitch = new HBox();
+        viewSwitch.getStyleClass().add("view-switch");
+        ToggleGroup viewGroup = new ToggleGroup();
+        for (ScheduleView view : ScheduleView.values()) {
+            String name = view.name().charAt(0) + view.name().substring(1).toLowerCase();
+            ToggleButton toggle = new ToggleButton(name);
+            toggle.getStyleClass().add("view-toggle");
+            toggle.setToggleGroup(viewGroup);
+            toggle.setSelected(view == scheduleView);
+            toggle.setOnAction(e -> showScheduleView(view));
+            viewToggles.put(view, toggle);
+            viewSwitch.getChildren().add(toggle);
+        }
+
+        scheduleHeader.getChildren().addAll(scheduleLabel, spacer, viewSwitch, addButton);
 
-        // Schedule Container
-        ScrollPane scrollPane = new ScrollPane();
-        scrollPane.setFitToWidth(true);
-        scrollPane.getStyleClass().add("schedule-scroll");
-        VBox.setVgrow(scrollPane, Priority.ALWAYS);
+        // Schedule List
+        scheduleList = createCardList("schedule-scroll", "📭 No tasks scheduled for this day", "empty-label");
+        scheduleList.setCellFactory(list -> new TaskCell());
+        scheduleList.setPadding(new Insets(10));
 
-        scheduleContainer = new VBox(10);
-        scheduleContainer.setPadding(new Insets(10));
-        scrollPane.setContent(scheduleContainer);
+        agendaList = createCardList("schedule-scroll", "🗓 Nothing coming up", "empty-label");
+        agendaList.setCellFactory(list -> new AgendaCell());
+        agendaList.setPadding(new Insets(10));
 
-        panel.getChildren().addAll(scheduleHeader, scrollPane);
+        scheduleViews.put(ScheduleView.DAY, scheduleList);
+        scheduleViews.put(ScheduleView.WEEK, createWeekView());
+        scheduleViews.put(ScheduleView.AGENDA, agendaList);
+        StackPane views = new StackPane();
+        for (Node view : scheduleViews.values()) {
+            view.setVisible(view == scheduleList);
+            views.getChildren().add(view);
+        }
+        VBox.setVgrow(views, Priority.ALWAYS);
+
+        panel.getChildren().addAll(scheduleHeader, views);
 
         return panel;
     }
 
+    // Seven columns built once; refreshWeekView re-fills them for the week of currentDate.
+    private Node createWeekView() {
+        HBox week = new HBox(8);
+        week.getStyleClass().add("week-view");
+        week.setPadding(new Insets(10));
+        for (int i = 0; i < 7; i++) {
+            final int column = i;
+            Button header = new Button();
+            header.getStyleClass().add("week-day-header");
+            header.setMaxWidth(Double.MAX_VALUE);
+            header.setOnAction(e -> showDay(weekStart().plusDays(column)));
+
+            VBox tasks = new VBox(6);
+            VBox day = new VBox(8, header, tasks);
+            day.getStyleClass().add("week-column");
+            day.setPadding(new Insets(8));
+            // equal columns however long the task names are
+            day.setMinWidth(0);
+            day.setPrefWidth(0);
+            HBox.setHgrow(day, Priority.ALWAYS);
+
+            weekHeaders[i] = header;
+            weekColumns[i] = tasks;
+            week.getChildren().add(day);
+        }
+        ScrollPane scroll = new ScrollPane(week);
+        scroll.getStyleClass().add("week-scroll");
+        scroll.setFitToWidth(true);
+        return scroll;
+    }
+
+    private LocalDate weekStart() {
+        return currentDate.minusDays(currentDate.getDayOfWeek().getValue() - 1);
+    }
+
+    private void showScheduleView(ScheduleView view) {
+        scheduleView = view;
+        viewToggles.get(view).setSelected(true);
+        scheduleViews.forEach((v, node) -> node.setVisible(v == view));
+        refreshRangeViews();
+        animations.fadeIn(scheduleViews.get(view), Duration.millis(200), 0.4);
+    }
+
+    // Opens a date picked in the week or agenda view in the day view.
+    private void showDay(LocalDate date) {
+        if (cellFor(date) != null) {
+            selectDate(date);
+        } else {
+            goToDate(date);
+        }
+        showScheduleView(ScheduleView.DAY);
+    }
+
+    // Re-reads the week or agenda view once per pulse however many changes arrive in it.
+    private void requestRangeRefresh() {
+        if (scheduleView == ScheduleView.DAY || rangeRefreshPending) {
+            return;
+        }
+        rangeRefreshPending = true;
+        Platform.runLater(() -> {
+            rangeRefreshPending = false;
+            refreshRangeViews();
+        });
+    }
+
+    private void refreshRangeViews() {
+        if (scheduleManager == null) {
+            return;
+        }
+        switch (scheduleView) {
+            case WEEK -> refreshWeekView();
+            case AGENDA -> refreshAgendaView();
+            case DAY -> { }
+        }
+    }
+
+    private void refreshWeekView() {
+        long started = System.nanoTime();
+        PlannerEvents.Render event = PlannerEvents.begin(PlannerEvents.Render::new);
+        LocalDate start = weekStart();
+        LocalDate end = start.plusDays(6);
+        int[] counts = scheduleManager.countTasksPerDay(start, end);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE dd");
+        for (int i = 0; i < 7; i++) {
+            LocalDate date = start.plusDays(i);
+            weekHeaders[i].setText(date.format(formatter) + (counts[i] > 0 ? "  •  " + counts[i] : ""));
+            setStyleClass(weekHeaders[i], "today", date.equals(LocalDate.now()));
+            setStyleClass(weekHeaders[i], "selected", date.equals(currentDate));
+            weekColumns[i].getChildren().clear();
+        }
+        List<Task> tasks = scheduleManager.getTasksBetween(start, end);
+        for (Task task : tasks) {
+            String time = task.hasTimeRange() ? TimeSlots.formatTime(task.getStartMinute()) : task.getTimeSlot();
+            Label label = new Label(time + "  " + task.getTaskName());
+            label.getStyleClass().add("week-task");
+            label.setMaxWidth(Double.MAX_VALUE);
+            label.setTooltip(new Tooltip(task.getTimeSlot() + "\n" + task.getTaskName()));
+            setStyleClass(label, "completed", task.isCompleted());
+            setStyleClass(label, "recurring", task.isOccurrence());
+            weekColumns[(int) (task.getDate().toEpochDay() - start.toEpochDay())].getChildren().add(label);
+        }
+        rendered(Metrics.WEEK_RENDER, event, started, "week", tasks.size());
+    }
+
+    private void refreshAgendaView() {
+        long start = System.nanoTime();
+        PlannerEvents.Render event = PlannerEvents.begin(PlannerEvents.Render::new);
+        LocalDateTime now = LocalDateTime.now();
+        agendaList.getItems().setAll(scheduleManager.getUpcomingTasks(now.toLocalDate(),
+                now.getHour() * 60 + now.getMinute(), AGENDA_SIZE));
+        agendaList.scrollTo(0);
+        rendered(Metrics.AGENDA_RENDER, event, start, "agenda", agendaList.getItems().size());
+    }
+
+    // Ends the timing of a view rebuild started with System.nanoTime() and PlannerEvents.begin().
+    private static void rendered(Metrics.Distribution distribution, PlannerEvents.Render event, long start,
+                                 String view, int items) {
+        distribution.stop(start);
+        if (event != null && event.shouldCommit()) {
+            event.view = view;
+            event.items = items;
+            event.commit();
+        }
+    }
+
     private VBox createRightPanel() {
         VBox panel = new VBox(20);
         panel.setPrefWidth(320);
@@ -310,16 +779,12 @@ public class Main extends Application {
 
         prioritiesHeader.getChildren().addAll(prioritiesLabel, addPriorityBtn);
 
-        ScrollPane prioritiesScroll = new ScrollPane();
-        prioritiesScroll.setFitToWidth(true);
-        prioritiesScroll.getStyleClass().add("priority-scroll");
-        VBox.setVgrow(prioritiesScroll, Priority.ALWAYS);
-
-        prioritiesArea = new VBox(8);
-        prioritiesArea.setPadding(new Insets(5));
-        prioritiesScroll.setContent(prioritiesArea);
+        priorityList = createCardList("priority-scroll", "No priorities set", "empty-label-small");
+        priorityList.setCellFactory(list -> new PriorityCell());
+        priorityList.setPadding(new Insets(5));
+        VBox.setVgrow(priorityList, Priority.ALWAYS);
 
-        prioritiesBox.getChildren().addAll(prioritiesHeader, prioritiesScroll);
+        prioritiesBox.getChildren().addAll(prioritiesHeader, priorityList);
         VBox.setVgrow(prioritiesBox, Priority.ALWAYS);
 
         // Todo Section
@@ -338,18 +803,19 @@ public class Main extends Application {
         addTodoBtn.getStyleClass().addAll("icon-button", "complete-button");
         addTodoBtn.setOnAction(e -> showAddTodoDialog());
 
-        todoHeader.getChildren().addAll(todoLabel, addTodoBtn);
+        Button autoScheduleBtn = new Button("⏱");
+        autoScheduleBtn.getStyleClass().addAll("icon-button", "complete-button");
+        autoScheduleBtn.setTooltip(new Tooltip("Schedule unfinished to-dos into free time"));
+        autoScheduleBtn.setOnAction(e -> autoScheduleTodos());
 
-        ScrollPane todoScroll = new ScrollPane();
-        todoScroll.setFitToWidth(true);
-        todoScroll.getStyleClass().add("todo-scroll");
-        VBox.setVgrow(todoScroll, Priority.ALWAYS);
+        todoHeader.getChildren().addAll(todoLabel, autoScheduleBtn, addTodoBtn);
 
-        todoArea = new VBox(8);
-        todoArea.setPadding(new Insets(5));
-        todoScroll.setContent(todoArea);
+        todoList = createCardList("todo-scroll", "No to-do items", "empty-label-small");
+        todoList.setCellFactory(list -> new TodoCell());
+        todoList.setPadding(new Insets(5));
+        VBox.setVgrow(todoList, Priority.ALWAYS);
 
-        todoBox.getChildren().addAll(todoHeader, todoScroll);
+        todoBox.getChildren().addAll(todoHeader, todoList);
         VBox.setVgrow(todoBox, Priority.ALWAYS);
 
         panel.getChildren().addAll(prioritiesBox, todoBox);
@@ -357,10 +823,20 @@ public class Main extends Application {
         return panel;
     }
 
+    private static <T> ListView<T> createCardList(String styleClass, String emptyText, String emptyStyleClass) {
+        ListView<T> list = new ListView<>();
+        list.getStyleClass().addAll("card-list", styleClass);
+        list.setFocusTraversable(false);
+        Label emptyLabel = new Label(emptyText);
+        emptyLabel.getStyleClass().add(emptyStyleClass);
+        list.setPlaceholder(emptyLabel);
+        return list;
+    }
+
     private void showAddTaskDialog() {
         Stage dialog = new Stage();
         dialog.setTitle("Add New Task");
-        dialog.initOwner(scheduleContainer.getScene().getWindow());
+        dialog.initOwner(scheduleList.getScene().getWindow());
 
         VBox content = new VBox(20);
         content.setPadding(new Insets(30));
@@ -385,6 +861,8 @@ public class Main extends Application {
             timeCombo.getItems().add(String.format("%02d:00 - %02d:00", i, i + 1));
         }
         timeCombo.setValue(timeCombo.getItems().get(9));
+        // any range can be typed in, e.g. "09:30 - 10:15"
+        timeCombo.setEditable(true);
 
         Label taskLabel = new Label("📝 Task:");
         taskLabel.getStyleClass().add("form-label");
@@ -402,6 +880,44 @@ public class Main extends Application {
         descArea.setPrefRowCount(3);
         descArea.setWrapText(true);
 
+        Label repeatLabel = new Label("🔁 Repeat:");
+        repeatLabel.getStyleClass().add("form-label");
+        repeatLabel.setMinWidth(Region.USE_PREF_SIZE);
+        ComboBox<String> repeatCombo = new ComboBox<>();
+        repeatCombo.getStyleClass().add("combo-box");
+        repeatCombo.getItems().addAll("Does not repeat", "Daily", "Weekly", "Custom days");
+        repeatCombo.setValue("Does not repeat");
+
+        HBox weekdayBox = new HBox(5);
+        List<ToggleButton> weekdayToggles = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            ToggleButton toggle = new ToggleButton(day.getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+            toggle.getStyleClass().add("weekday-toggle");
+            toggle.setSelected(day == currentDate.getDayOfWeek());
+            weekdayToggles.add(toggle);
+        }
+        weekdayBox.getChildren().addAll(weekdayToggles);
+
+        Label endsLabel = new Label("⏹ Ends:");
+        endsLabel.getStyleClass().add("form-label");
+        endsLabel.setMinWidth(Region.USE_PREF_SIZE);
+        DatePicker untilPicker = new DatePicker();
+        untilPicker.getStyleClass().add("date-picker");
+        untilPicker.setPromptText("Never");
+        TextField countField = new TextField();
+        countField.getStyleClass().add("text-field");
+        countField.setPromptText("or after N times");
+        countField.setPrefColumnCount(8);
+        HBox endsBox = new HBox(10, untilPicker, countField);
+
+        // the repeat details only take up room once a repeat is chosen
+        weekdayBox.visibleProperty().bind(repeatCombo.valueProperty().isEqualTo("Custom days"));
+        weekdayBox.managedProperty().bind(weekdayBox.visibleProperty());
+        for (Node node : List.of(endsLabel, endsBox)) {
+            node.visibleProperty().bind(repeatCombo.valueProperty().isNotEqualTo("Does not repeat"));
+            node.managedProperty().bind(node.visibleProperty());
+        }
+
         form.add(dateLabel, 0, 0);
         form.add(datePicker, 1, 0);
         form.add(timeLabel, 0, 1);
@@ -410,6 +926,11 @@ public class Main extends Application {
         form.add(taskField, 1, 2);
         form.add(descLabel, 0, 3);
         form.add(descArea, 1, 3);
+        form.add(repeatLabel, 0, 4);
+        form.add(repeatCombo, 1, 4);
+        form.add(weekdayBox, 1, 5);
+        form.add(endsLabel, 0, 6);
+        form.add(endsBox, 1, 6);
 
         GridPane.setHgrow(datePicker, Priority.ALWAYS);
         GridPane.setHgrow(timeCombo, Priority.ALWAYS);
@@ -431,18 +952,34 @@ public class Main extends Application {
                 return;
             }
 
+            int[] range = TimeSlots.parse(timeCombo.getEditor().getText());
+            if (range == null) {
+                showAlert("Error", "Please enter a time slot like 09:30 - 10:15!", Alert.AlertType.ERROR);
+                return;
+            }
+
             LocalDate date = datePicker.getValue();
-            String timeSlot = timeCombo.getValue();
             String task = taskField.getText();
             String description = descArea.getText();
 
-            Task newTask = new Task(date, timeSlot, task, description);
-            scheduleManager.addTask(newTask);
+            if (!repeatCombo.getValue().equals("Does not repeat")) {
+                Recurrence recurrence = recurrenceFromForm(repeatCombo.getValue(), date, weekdayToggles,
+                        untilPicker.getValue(), countField.getText().trim());
+                if (recurrence == null) {
+                    return;
+                }
+                scheduleManager.addRecurringTask(new RecurringTask(recurrence, range[0], range[1], task, description));
+                showAlert("Success", "Recurring task added successfully!", Alert.AlertType.INFORMATION);
+                dialog.close();
+                return;
+            }
 
-            if (date.equals(currentDate)) {
-                loadScheduleForDate(currentDate);
+            Task newTask = new Task(date, range[0], range[1], task, description);
+            List<Task> conflicts = scheduleManager.findConflicts(newTask);
+            if (!conflicts.isEmpty() && !confirmConflicts(conflicts)) {
+                return;
             }
-            updateCalendar();
+            scheduleManager.addTask(newTask);
 
             showAlert("Success", "Task added successfully!", Alert.AlertType.INFORMATION);
             dialog.close();
@@ -454,148 +991,293 @@ public class Main extends Application {
 
         content.getChildren().addAll(form, buttonBox);
 
-        Scene scene = new Scene(content, 500, 450);
+        Scene scene = new Scene(content, 560, 560);
         scene.getStylesheets().add(getClass().getResource("style.css").toExternalForm());
         dialog.setScene(scene);
 
         // Dialog entrance animation
-        FadeTransition fade = new FadeTransition(Duration.millis(300), content);
-        fade.setFromValue(0);
-        fade.setToValue(1);
-        fade.play();
+        animations.fadeIn(content, Duration.millis(300), 0);
 
         dialog.show();
     }
 
+    // Builds the rule chosen in the add task dialog, or shows what is wrong and returns null.
+    private Recurrence recurrenceFromForm(String repeat, LocalDate start, List<ToggleButton> weekdayToggles,
+                                          LocalDate until, String countText) {
+        int weekdays = 0;
+        if (repeat.equals("Custom days")) {
+            for (int i = 0; i < weekdayToggles.size(); i++) {
+                if (weekdayToggles.get(i).isSelected()) {
+                    weekdays |= 1 << i;
+                }
+            }
+            if (weekdays == 0) {
+                showAlert("Error", "Please pick at least one day of the week!", Alert.AlertType.ERROR);
+                return null;
+            }
+        }
+        if (until != null && until.isBefore(start)) {
+            showAlert("Error", "The end date is before the first date!", Alert.AlertType.ERROR);
+            return null;
+        }
+        int count = 0;
+        if (!countText.isEmpty()) {
+            try {
+                count = Integer.parseInt(countText);
+            } catch (NumberFormatException e) {
+                count = -1;
+            }
+            if (count <= 0) {
+                showAlert("Error", "Please enter how many times it repeats as a whole number!", Alert.AlertType.ERROR);
+                return null;
+            }
+        }
+        Recurrence.Frequency frequency = repeat.equals("Daily") ? Recurrence.Frequency.DAILY : Recurrence.Frequency.WEEKLY;
+        return new Recurrence(frequency, 1, weekdays, start, until, count);
+    }
+
     private void loadTodaySchedule() {
         loadScheduleForDate(LocalDate.now());
     }
 
     private void loadScheduleForDate(LocalDate date) {
-        scheduleContainer.getChildren().clear();
+        long start = System.nanoTime();
+        PlannerEvents.Render event = PlannerEvents.begin(PlannerEvents.Render::new);
         List<Task> tasks = scheduleManager.getTasksForDate(date);
+        animations.beginEntrance(tasks.size());
+        scheduleList.getItems().setAll(tasks);
+        scheduleList.scrollTo(0);
+        // cells laid out in this pulse animate; cells recycled by later scrolling do not
+        Platform.runLater(animations::endEntrance);
 
-        if (tasks.isEmpty()) {
-            Label emptyLabel = new Label("📭 No tasks scheduled for this day");
-            emptyLabel.getStyleClass().add("empty-label");
-            scheduleContainer.getChildren().add(emptyLabel);
-        } else {
-            for (Task task : tasks) {
-                HBox taskCard = createTaskCard(task);
-                scheduleContainer.getChildren().add(taskCard);
+        loadPriorities(date);
+        loadTodos(date);
+        rendered(Metrics.DAY_RENDER, event, start, "day", tasks.size());
+        requestRangeRefresh();
+    }
 
-                // Entrance animation
-                TranslateTransition translate = new TranslateTransition(Duration.millis(300), taskCard);
-                translate.setFromX(-50);
-                translate.setToX(0);
+    private void loadPriorities(LocalDate date) {
+        priorityList.getItems().setAll(scheduleManager.getPriorities(date));
+    }
 
-                FadeTransition fade = new FadeTransition(Duration.millis(300), taskCard);
-                fade.setFromValue(0);
-                fade.setToValue(1);
+    private void loadTodos(LocalDate date) {
+        todoList.getItems().setAll(scheduleManager.getTodos(date));
+    }
 
-                ParallelTransition parallel = new ParallelTransition(translate, fade);
-                parallel.play();
+    // Changes made off the FX thread are queued and applied together in one pulse, so a burst from
+    // an import or the local API costs one runLater instead of one per change.
+    private void onScheduleChanged(ScheduleChange change) {
+        if (!Platform.isFxApplicationThread()) {
+            boolean first;
+            synchronized (queuedChanges) {
+                first = queuedChanges.isEmpty();
+                queuedChanges.add(change);
             }
+            if (first) {
+                Platform.runLater(this::applyQueuedChanges);
+            }
+            return;
         }
+        // keep the order: whatever was queued before this change goes first
+        applyQueuedChanges();
+        showChange(change);
+    }
 
-        loadPriorities(date);
-        loadTodos(date);
+    private void applyQueuedChanges() {
+        List<ScheduleChange> changes;
+        synchronized (queuedChanges) {
+            changes = new ArrayList<>(queuedChanges);
+            queuedChanges.clear();
+        }
+        if (changes.size() > QUEUED_CHANGES_BEFORE_RELOAD) {
+            // past this many, reloading the month and the day is cheaper than patching them
+            requestRangeRefresh();
+            requestRedraw();
+            return;
+        }
+        changes.forEach(this::showChange);
     }
 
-    private void loadPriorities(LocalDate date) {
-        prioritiesArea.getChildren().clear();
-        List<PriorityItem> priorities = scheduleManager.getPriorities(date);
+    // Redraws the month and the day once per pulse however many changes ask for it.
+    private void requestRedraw() {
+        if (redrawPending) {
+            return;
+        }
+        redrawPending = true;
+        Platform.runLater(() -> {
+            redrawPending = false;
+            updateCalendar();
+            loadScheduleForDate(currentDate);
+        });
+    }
 
-        if (priorities.isEmpty()) {
-            Label emptyLabel = new Label("No priorities set");
-            emptyLabel.getStyleClass().add("empty-label-small");
-            prioritiesArea.getChildren().add(emptyLabel);
-        } else {
-            int index = 1;
-            for (PriorityItem priority : priorities) {
-                HBox priorityCard = createPriorityCard(priority, index++);
-                prioritiesArea.getChildren().add(priorityCard);
+    // Applies one model change to what is on screen instead of reloading the day.
+    private void showChange(ScheduleChange change) {
+        if (change.section() == ScheduleChange.Section.TASK || change.section() == ScheduleChange.Section.SERIES) {
+            requestRangeRefresh();
+        }
+        if (change.section() == ScheduleChange.Section.SERIES) {
+            // occurrences may appear or vanish on any date, so redraw the month and the day
+            requestRedraw();
+            return;
+        }
+        if (change.section() == ScheduleChange.Section.TASK && change.type() != ScheduleChange.Type.UPDATED) {
+            Button dayCell = cellFor(change.date());
+            if (dayCell != null) {
+                setStyleClass(dayCell, "has-tasks", scheduleManager.hasTasksForDate(change.date()));
             }
         }
+        if (!change.date().equals(currentDate)) {
+            return;
+        }
+        switch (change.section()) {
+            case TASK -> applyChange(scheduleList, change);
+            case PRIORITY -> applyChange(priorityList, change);
+            case TODO -> applyChange(todoList, change);
+            case SERIES -> { }
+        }
     }
 
-    private void loadTodos(LocalDate date) {
-        todoArea.getChildren().clear();
-        List<TodoItem> todos = scheduleManager.getTodos(date);
-
-        if (todos.isEmpty()) {
-            Label emptyLabel = new Label("No to-do items");
-            emptyLabel.getStyleClass().add("empty-label-small");
-            todoArea.getChildren().add(emptyLabel);
-        } else {
-            for (TodoItem todo : todos) {
-                HBox todoCard = createTodoCard(todo);
-                todoArea.getChildren().add(todoCard);
+    @SuppressWarnings("unchecked")
+    private static <T extends Identified> void applyChange(ListView<T> list, ScheduleChange change) {
+        T item = (T) change.item();
+        List<T> items = list.getItems();
+        // look the item up by id rather than trusting the index: a day reload may have run since the change
+        int index = -1;
+        for (int i = 0; i < items.size() && index < 0; i++) {
+            if (items.get(i).getId() == item.getId()) {
+                index = i;
+            }
+        }
+        switch (change.type()) {
+            case ADDED -> {
+                if (index < 0) {
+                    items.add(Math.min(change.index(), items.size()), item);
+                }
+            }
+            case REMOVED -> {
+                if (index >= 0) {
+                    items.remove(index);
+                }
+            }
+            case UPDATED -> {
+                if (index >= 0 && items.get(index) != item) {
+                    // the list holds an older copy of the item; swapping it re-binds just that row
+                    items.set(index, item);
+                    return;
+                }
+                // only the visible cell showing the item is re-bound
+                for (Node node : list.lookupAll(".list-cell")) {
+                    if (node instanceof CardCell<?> cell && cell.getItem() == item) {
+                        cell.refresh();
+                    }
+                }
             }
         }
     }
 
-    private HBox createPriorityCard(PriorityItem priority, int index) {
-        HBox card = new HBox(10);
-        card.getStyleClass().add("priority-item");
-        card.setPadding(new Insets(10));
-        card.setAlignment(Pos.CENTER_LEFT);
+    // Builds its card once; bind fills it for an item and runs again in place when that item changes.
+    private abstract static class CardCell<T> extends ListCell<T> {
+        protected final HBox card;
 
-        Label numberLabel = new Label(index + ".");
-        numberLabel.getStyleClass().add("priority-number");
-        numberLabel.setMinWidth(25);
+        CardCell(HBox card) {
+            this.card = card;
+            // let the card follow the list width so long text wraps instead of scrolling sideways
+            setPrefWidth(0);
+            setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+        }
 
-        Label textLabel = new Label(priority.getText());
-        textLabel.getStyleClass().add("priority-text");
-        textLabel.setWrapText(true);
-        HBox.setHgrow(textLabel, Priority.ALWAYS);
+        abstract void bind(T item);
 
-        Button deleteBtn = new Button("✗");
-        deleteBtn.getStyleClass().addAll("mini-button", "delete-mini");
-        deleteBtn.setOnAction(e -> {
-            scheduleManager.deletePriority(currentDate, priority);
-            loadPriorities(currentDate);
-        });
+        void refresh() {
+            if (getItem() != null) {
+                bind(getItem());
+            }
+        }
 
-        card.getChildren().addAll(numberLabel, textLabel, deleteBtn);
-        return card;
+        @Override
+        protected void updateItem(T item, boolean empty) {
+            super.updateItem(item, empty);
+            if (empty || item == null) {
+                setGraphic(null);
+                return;
+            }
+            bind(item);
+            setGraphic(card);
+        }
     }
 
-    private HBox createTodoCard(TodoItem todo) {
-        HBox card = new HBox(10);
-        card.getStyleClass().add("todo-item");
-        if (todo.isCompleted()) {
-            card.getStyleClass().add("completed");
-        }
-        card.setPadding(new Insets(10));
-        card.setAlignment(Pos.CENTER_LEFT);
+    private class PriorityCell extends CardCell<PriorityItem> {
+        private final Label numberLabel = new Label();
+        private final Label textLabel = new Label();
 
-        CheckBox checkBox = new CheckBox();
-        checkBox.setSelected(todo.isCompleted());
-        checkBox.getStyleClass().add("todo-checkbox");
-        checkBox.setOnAction(e -> {
-            todo.setCompleted(checkBox.isSelected());
-            scheduleManager.saveTodos();
-            loadTodos(currentDate);
-        });
+        PriorityCell() {
+            super(new HBox(10));
+            card.getStyleClass().add("priority-item");
+            card.setPadding(new Insets(10));
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            numberLabel.getStyleClass().add("priority-number");
+            numberLabel.setMinWidth(25);
+
+            textLabel.getStyleClass().add("priority-text");
+            textLabel.setWrapText(true);
+            textLabel.setMaxWidth(Double.MAX_VALUE);
+            HBox.setHgrow(textLabel, Priority.ALWAYS);
 
-        Label textLabel = new Label(todo.getText());
-        textLabel.getStyleClass().add("todo-text");
-        if (todo.isCompleted()) {
-            textLabel.setStyle("-fx-strikethrough: true; -fx-text-fill: #888;");
+            Button deleteBtn = new Button("✗");
+            deleteBtn.getStyleClass().addAll("mini-button", "delete-mini");
+            deleteBtn.setOnAction(e -> {
+                scheduleManager.deletePriority(currentDate, getItem());
+            });
+
+            card.getChildren().addAll(numberLabel, textLabel, deleteBtn);
         }
-        textLabel.setWrapText(true);
-        HBox.setHgrow(textLabel, Priority.ALWAYS);
 
-        Button deleteBtn = new Button("✗");
-        deleteBtn.getStyleClass().addAll("mini-button", "delete-mini");
-        deleteBtn.setOnAction(e -> {
-            scheduleManager.deleteTodo(currentDate, todo);
-            loadTodos(currentDate);
-        });
+        @Override
+        void bind(PriorityItem priority) {
+            numberLabel.setText((getIndex() + 1) + ".");
+            Task task = scheduleManager.getTask(priority.getTaskId());
+            textLabel.setText(task != null ? task.getTaskName() : priority.getText());
+        }
+    }
+
+    private class TodoCell extends CardCell<TodoItem> {
+        private final CheckBox checkBox = new CheckBox();
+        private final Label textLabel = new Label();
+
+        TodoCell() {
+            super(new HBox(10));
+            card.getStyleClass().add("todo-item");
+            card.setPadding(new Insets(10));
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            checkBox.getStyleClass().add("todo-checkbox");
+            checkBox.setOnAction(e -> {
+                scheduleManager.setTodoCompleted(currentDate, getItem(), checkBox.isSelected());
+            });
+
+            textLabel.getStyleClass().add("todo-text");
+            textLabel.setWrapText(true);
+            textLabel.setMaxWidth(Double.MAX_VALUE);
+            HBox.setHgrow(textLabel, Priority.ALWAYS);
 
-        card.getChildren().addAll(checkBox, textLabel, deleteBtn);
-        return card;
+            Button deleteBtn = new Button("✗");
+            deleteBtn.getStyleClass().addAll("mini-button", "delete-mini");
+            deleteBtn.setOnAction(e -> {
+                scheduleManager.deleteTodo(currentDate, getItem());
+            });
+
+            card.getChildren().addAll(checkBox, textLabel, deleteBtn);
+        }
+
+        @Override
+        void bind(TodoItem todo) {
+            setStyleClass(card, "completed", todo.isCompleted());
+            checkBox.setSelected(todo.isCompleted());
+            textLabel.setText(todo.getText());
+            textLabel.setStyle(todo.isCompleted() ? "-fx-strikethrough: true; -fx-text-fill: #888;" : "");
+        }
     }
 
     private void showAddPriorityDialog() {
@@ -614,7 +1296,7 @@ public class Main extends Application {
 
         Stage dialog = new Stage();
         dialog.setTitle("Add Priority");
-        dialog.initOwner(scheduleContainer.getScene().getWindow());
+        dialog.initOwner(scheduleList.getScene().getWindow());
 
         VBox content = new VBox(20);
         content.setPadding(new Insets(30));
@@ -623,13 +1305,22 @@ public class Main extends Application {
         Label instruction = new Label("Select a task to add as priority:");
         instruction.getStyleClass().add("form-label");
 
-        ComboBox<String> taskCombo = new ComboBox<>();
+        ComboBox<Task> taskCombo = new ComboBox<>();
         taskCombo.getStyleClass().add("combo-box");
         taskCombo.setMaxWidth(Double.MAX_VALUE);
+        // the slot tells apart tasks that share a name
+        taskCombo.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(Task task) {
+                return task == null ? "" : task.getTimeSlot() + "  " + task.getTaskName();
+            }
 
-        for (Task task : todayTasks) {
-            taskCombo.getItems().add(task.getTaskName());
-        }
+            @Override
+            public Task fromString(String text) {
+                return null;
+            }
+        });
+        taskCombo.getItems().addAll(todayTasks);
 
         if (!taskCombo.getItems().isEmpty()) {
             taskCombo.setValue(taskCombo.getItems().get(0));
@@ -645,11 +1336,10 @@ public class Main extends Application {
         cancelButton.getStyleClass().addAll("dialog-button", "cancel-button");
 
         addButton.setOnAction(e -> {
-            String selectedTask = taskCombo.getValue();
-            if (selectedTask != null && !selectedTask.isEmpty()) {
+            Task selectedTask = taskCombo.getValue();
+            if (selectedTask != null) {
                 PriorityItem priority = new PriorityItem(selectedTask);
                 scheduleManager.addPriority(currentDate, priority);
-                loadPriorities(currentDate);
                 dialog.close();
             }
         });
@@ -668,7 +1358,7 @@ public class Main extends Application {
     private void showAddTodoDialog() {
         Stage dialog = new Stage();
         dialog.setTitle("Add To-Do Item");
-        dialog.initOwner(scheduleContainer.getScene().getWindow());
+        dialog.initOwner(scheduleList.getScene().getWindow());
 
         VBox content = new VBox(20);
         content.setPadding(new Insets(30));
@@ -695,7 +1385,6 @@ public class Main extends Application {
             if (!text.isEmpty()) {
                 TodoItem todo = new TodoItem(text);
                 scheduleManager.addTodo(currentDate, todo);
-                loadTodos(currentDate);
                 dialog.close();
             } else {
                 showAlert("Error", "Please enter a to-do item!", Alert.AlertType.ERROR);
@@ -713,82 +1402,203 @@ public class Main extends Application {
         dialog.show();
     }
 
-    private HBox createTaskCard(Task task) {
-        HBox card = new HBox(15);
-        card.getStyleClass().add("task-card");
-        if (task.isCompleted()) {
-            card.getStyleClass().add("completed");
+    // Moves the day's unfinished to-dos into one-hour slots of free time over the next two weeks.
+    private void autoScheduleTodos() {
+        List<TodoItem> unfinished = new ArrayList<>();
+        for (TodoItem todo : scheduleManager.getTodos(currentDate)) {
+            if (!todo.isCompleted()) {
+                unfinished.add(todo);
+            }
+        }
+        if (unfinished.isEmpty()) {
+            showAlert("Nothing to Schedule", "There are no unfinished to-do items for this day.", Alert.AlertType.INFORMATION);
+            return;
         }
-        card.setPadding(new Insets(15));
-        card.setAlignment(Pos.CENTER_LEFT);
-
-        VBox timeBox = new VBox(5);
-        timeBox.setAlignment(Pos.CENTER);
-        timeBox.getStyleClass().add("time-box");
-        Label timeLabel = new Label(task.getTimeSlot());
-        timeLabel.getStyleClass().add("time-label");
-        timeBox.getChildren().add(timeLabel);
 
-        VBox contentBox = new VBox(5);
-        HBox.setHgrow(contentBox, Priority.ALWAYS);
+        LocalDate today = LocalDate.now();
+        LocalDate from = currentDate.isBefore(today) ? today : currentDate;
+        // on today, start from the next full hour
+        int firstDayStart = from.equals(today) ? (LocalTime.now().getHour() + 1) * 60 : 0;
+        List<Task> placed = new SlotFinder(scheduleManager).autoSchedule(unfinished, from, from.plusDays(13),
+                60, 8 * 60, 22 * 60, firstDayStart);
+        if (placed.isEmpty()) {
+            showAlert("No Free Time", "There is no free hour between 08:00 and 22:00 in the next two weeks.", Alert.AlertType.WARNING);
+            return;
+        }
 
-        Label taskLabel = new Label(task.getTaskName());
-        taskLabel.getStyleClass().add("task-label");
-        if (task.isCompleted()) {
-            taskLabel.setStyle("-fx-text-fill: #888; -fx-strikethrough: true;");
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE, MMM dd");
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < placed.size(); i++) {
+            Task task = placed.get(i);
+            scheduleManager.addTask(task);
+            scheduleManager.deleteTodo(currentDate, unfinished.get(i));
+            summary.append(task.getDate().format(formatter)).append("  ").append(task.getTimeSlot())
+                    .append("  ").append(task.getTaskName()).append("\n");
+        }
+        if (placed.size() < unfinished.size()) {
+            summary.append("\n").append(unfinished.size() - placed.size()).append(" item(s) did not fit and stay on the list.");
         }
 
-        Label descLabel = new Label(task.getDescription());
-        descLabel.getStyleClass().add("desc-label");
-        descLabel.setWrapText(true);
+        showAlert("To-Dos Scheduled", summary.toString(), Alert.AlertType.INFORMATION);
+    }
 
-        contentBox.getChildren().addAll(taskLabel, descLabel);
+    private class TaskCell extends CardCell<Task> {
+        private final Label timeLabel = new Label();
+        private final Label taskLabel = new Label();
+        private final Label descLabel = new Label();
+        private final Button completeButton = new Button();
+
+        TaskCell() {
+            super(new HBox(15));
+            card.getStyleClass().add("task-card");
+            card.setPadding(new Insets(15));
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            VBox timeBox = new VBox(5);
+            timeBox.setAlignment(Pos.CENTER);
+            timeBox.getStyleClass().add("time-box");
+            timeLabel.getStyleClass().add("time-label");
+            timeBox.getChildren().add(timeLabel);
+
+            VBox contentBox = new VBox(5);
+            HBox.setHgrow(contentBox, Priority.ALWAYS);
+
+            taskLabel.getStyleClass().add("task-label");
+            descLabel.getStyleClass().add("desc-label");
+            descLabel.setWrapText(true);
+
+            contentBox.getChildren().addAll(taskLabel, descLabel);
+
+            HBox actionBox = new HBox(8);
+            actionBox.setAlignment(Pos.CENTER_RIGHT);
+
+            completeButton.getStyleClass().addAll("icon-button", "complete-button");
+            completeButton.setOnAction(e -> {
+                Task task = getItem();
+                scheduleManager.setTaskCompleted(task, !task.isCompleted());
+                animateButton(completeButton);
+            });
 
-        HBox actionBox = new HBox(8);
-        actionBox.setAlignment(Pos.CENTER_RIGHT);
+            Button deleteButton = new Button("🗑");
+            deleteButton.getStyleClass().addAll("icon-button", "delete-button");
+            deleteButton.setOnAction(e -> {
+                Task task = getItem();
+                if (task.isOccurrence()) {
+                    confirmDeleteOccurrence(task);
+                    return;
+                }
+                Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+                confirm.setTitle("Confirm Delete");
+                confirm.setHeaderText("Delete Task");
+                confirm.setContentText("Are you sure you want to delete this task?");
+
+                confirm.showAndWait().ifPresent(response -> {
+                    if (response == ButtonType.OK) {
+                        scheduleManager.deleteTask(task);
+                    }
+                });
+            });
 
-        Button completeButton = new Button(task.isCompleted() ? "↺" : "✓");
-        completeButton.getStyleClass().addAll("icon-button", "complete-button");
-        completeButton.setOnAction(e -> {
-            task.setCompleted(!task.isCompleted());
-            scheduleManager.saveTasks();
-            loadScheduleForDate(currentDate);
-            animateButton(completeButton);
-        });
+            actionBox.getChildren().addAll(completeButton, deleteButton);
 
-        Button deleteButton = new Button("🗑");
-        deleteButton.getStyleClass().addAll("icon-button", "delete-button");
-        deleteButton.setOnAction(e -> {
-            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
-            confirm.setTitle("Confirm Delete");
-            confirm.setHeaderText("Delete Task");
-            confirm.setContentText("Are you sure you want to delete this task?");
-
-            confirm.showAndWait().ifPresent(response -> {
-                if (response == ButtonType.OK) {
-                    scheduleManager.deleteTask(task);
-                    loadScheduleForDate(currentDate);
-                    updateCalendar();
+            card.getChildren().addAll(timeBox, contentBox, actionBox);
+        }
+
+        @Override
+        void bind(Task task) {
+            setStyleClass(card, "completed", task.isCompleted());
+            setStyleClass(card, "recurring", task.isOccurrence());
+            timeLabel.setText(task.getTimeSlot());
+            taskLabel.setText(task.getTaskName());
+            taskLabel.setStyle(task.isCompleted() ? "-fx-text-fill: #888; -fx-strikethrough: true;" : "");
+            descLabel.setText(task.getDescription());
+            completeButton.setText(task.isCompleted() ? "↺" : "✓");
+        }
+
+        @Override
+        protected void updateItem(Task task, boolean empty) {
+            super.updateItem(task, empty);
+            if (empty || task == null) {
+                animations.settle(card);
+            } else {
+                animations.entrance(card);
+            }
+        }
+    }
+
+    // One upcoming task with its date; clicking it opens that day.
+    private class AgendaCell extends CardCell<Task> {
+        private final Label dateLabel = new Label();
+        private final Label timeLabel = new Label();
+        private final Label taskLabel = new Label();
+
+        AgendaCell() {
+            super(new HBox(15));
+            card.getStyleClass().addAll("task-card", "agenda-card");
+            card.setPadding(new Insets(10, 15, 10, 15));
+            card.setAlignment(Pos.CENTER_LEFT);
+
+            dateLabel.getStyleClass().add("agenda-date");
+            dateLabel.setMinWidth(Region.USE_PREF_SIZE);
+            timeLabel.getStyleClass().add("desc-label");
+            timeLabel.setMinWidth(Region.USE_PREF_SIZE);
+            taskLabel.getStyleClass().add("task-label");
+            taskLabel.setMaxWidth(Double.MAX_VALUE);
+            HBox.setHgrow(taskLabel, Priority.ALWAYS);
+
+            card.getChildren().addAll(dateLabel, timeLabel, taskLabel);
+            card.setOnMouseClicked(e -> {
+                if (getItem() != null) {
+                    showDay(getItem().getDate());
                 }
             });
-        });
+        }
 
-        actionBox.getChildren().addAll(completeButton, deleteButton);
+        @Override
+        void bind(Task task) {
+            setStyleClass(card, "completed", task.isCompleted());
+            setStyleClass(card, "recurring", task.isOccurrence());
+            dateLabel.setText(task.getDate().format(DateTimeFormatter.ofPattern("EEE, MMM dd")));
+            timeLabel.setText(task.getTimeSlot());
+            taskLabel.setText(task.getTaskName());
+        }
+    }
 
-        card.getChildren().addAll(timeBox, contentBox, actionBox);
+    // An occurrence can go on its own or together with every other date of its series.
+    private void confirmDeleteOccurrence(Task task) {
+        ButtonType thisDate = new ButtonType("This date");
+        ButtonType wholeSeries = new ButtonType("Whole series");
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, "", thisDate, wholeSeries, ButtonType.CANCEL);
+        confirm.setTitle("Confirm Delete");
+        confirm.setHeaderText("Delete Recurring Task");
+        confirm.setContentText("Delete only this date, or every date this task repeats on?");
+        confirm.showAndWait().ifPresent(response -> {
+            if (response == thisDate) {
+                scheduleManager.deleteTask(task);
+            } else if (response == wholeSeries) {
+                RecurringTask recurring = scheduleManager.getRecurringTask(task.getSeriesId());
+                if (recurring != null) {
+                    scheduleManager.deleteRecurringTask(recurring);
+                }
+            }
+        });
+    }
 
-        return card;
+    private boolean confirmConflicts(List<Task> conflicts) {
+        StringBuilder overlapping = new StringBuilder();
+        for (Task task : conflicts) {
+            overlapping.append("\n• ").append(task.getTimeSlot()).append("  ").append(task.getTaskName());
+        }
+
+        Alert confirm = new Alert(Alert.AlertType.CONFIRMATION);
+        confirm.setTitle("Time Conflict");
+        confirm.setHeaderText("This slot overlaps with:" + overlapping);
+        confirm.setContentText("Add the task anyway?");
+        return confirm.showAndWait().filter(response -> response == ButtonType.OK).isPresent();
     }
 
     private void animateButton(Button button) {
-        ScaleTransition scale = new ScaleTransition(Duration.millis(100), button);
-        scale.setFromX(1.0);
-        scale.setFromY(1.0);
-        scale.setToX(0.9);
-        scale.setToY(0.9);
-        scale.setAutoReverse(true);
-        scale.setCycleCount(2);
-        scale.play();
+        animations.press(button);
     }
 
     private void showAlert(String title, String content, Alert.AlertType type) {
@@ -800,6 +1610,121 @@ public class Main extends Application {
     }
 
     public static void main(String[] args) {
+        PlannerEvents.init();
+        if (args.length > 0 && args[0].equals("--import")) {
+            System.exit(importFiles(Arrays.asList(args).subList(1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("--export")) {
+            System.exit(exportFile(Arrays.asList(args).subList(1, args.length)));
+        }
+        if (args.length > 0 && args[0].equals("--serve")) {
+            int status = serve(Arrays.asList(args).subList(1, args.length));
+            if (status != 0) {
+                System.exit(status);
+            }
+            return;
+        }
         launch(args);
     }
+
+    // Headless local API: --serve [port] serves the schedule in the working directory until the
+    // process is stopped. The server's own thread keeps the JVM running after main returns. Don't
+    // run it beside the window on the same schedule; start the window with --api-port=<port> instead.
+    private static int serve(List<String> args) {
+        int port;
+        try {
+            port = args.isEmpty() ? PlannerServer.DEFAULT_PORT : Integer.parseInt(args.get(0));
+        } catch (NumberFormatException e) {
+            port = -1;
+        }
+        if (args.size() > 1 || port < 0 || port > 65535) {
+            System.err.println("usage: --serve [port]");
+            return 2;
+        }
+        ScheduleManager manager = new ScheduleManager();
+        manager.setErrorHandler(e -> System.err.println("Storage problem: " + e.getMessage()));
+        PlannerServer server;
+        try {
+            server = new PlannerServer(manager, port);
+        } catch (IOException e) {
+            System.err.println("Could not listen on port " + port + ": " + e.getMessage());
+            manager.close();
+            return 1;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            manager.close();
+        }, "server-shutdown"));
+        server.start();
+        System.out.println("Serving the schedule at http://127.0.0.1:" + server.port() + "/api/ (Ctrl+C to stop)");
+        return 0;
+    }
+
+    // Headless import: --import timetable.ics [more.csv ...] adds the files to the schedule in the
+    // working directory without starting the UI. Exits with 1 when anything was not imported or
+    // could not be saved, 2 on bad usage.
+    private static int importFiles(List<String> files) {
+        if (files.isEmpty()) {
+            System.err.println("usage: --import <timetable.csv | timetable.ics>...");
+            return 2;
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        ScheduleManager manager = new ScheduleManager();
+        manager.setErrorHandler(e -> {
+            System.err.println("Storage problem: " + e.getMessage());
+            failed.set(true);
+        });
+        try {
+            for (String name : files) {
+                try {
+                    TimetableImporter.Result result = TimetableImporter.importFile(manager, Path.of(name));
+                    System.out.println(name + ": " + result.summary());
+                    if (result.rejected() > 0) {
+                        failed.set(true);
+                    }
+                } catch (IOException e) {
+                    System.err.println(name + ": " + e.getMessage());
+                    failed.set(true);
+                }
+            }
+        } finally {
+            manager.close();
+        }
+        return failed.get() ? 1 : 0;
+    }
+
+    // Headless export: --export schedule.ics|.csv|.json 2024-01-01 2024-12-31 writes that range of
+    // the schedule in the working directory.
+    private static int exportFile(List<String> args) {
+        ScheduleExporter.Format format = args.isEmpty() ? null : ScheduleExporter.Format.of(Path.of(args.get(0)));
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = args.size() == 3 ? LocalDate.parse(args.get(1)) : null;
+            to = args.size() == 3 ? LocalDate.parse(args.get(2)) : null;
+        } catch (DateTimeParseException e) {
+            from = null;
+            to = null;
+        }
+        if (format == null || from == null || to.isBefore(from)) {
+            System.err.println("usage: --export <schedule.ics | schedule.csv | schedule.json> <from> <to>");
+            return 2;
+        }
+        ScheduleManager manager = new ScheduleManager();
+        AtomicBoolean failed = new AtomicBoolean();
+        manager.setErrorHandler(e -> {
+            System.err.println("Storage problem: " + e.getMessage());
+            failed.set(true);
+        });
+        try {
+            int days = ScheduleExporter.export(manager, from, to, format, Path.of(args.get(0)), done -> { });
+            System.out.println(args.get(0) + ": exported " + days + " day" + (days == 1 ? "" : "s") + ".");
+            return failed.get() ? 1 : 0;
+        } catch (IOException e) {
+            System.err.println(args.get(0) + ": " + e.getMessage());
+            return 1;
+        } finally {
+            manager.close();
+        }
+    }
 }
\ No newline at end of file
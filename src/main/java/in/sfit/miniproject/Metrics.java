@@ -0,0 +1,150 @@
+package in.sfit.miniproject;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide latency and size distributions of the load, save, query and render paths, read by
+// the diagnostics panel and summarized into the flight recording. Recording a value is a few
+// atomic increments with no allocation, so the hot paths can afford it on every call.
+final class Metrics {
+    enum Unit { NANOS, BYTES }
+
+    // Operations at least this slow are also recorded as a SlowOperation event.
+    private static final long SLOW_NANOS = 1_000_000;
+    // four buckets per power of two, so a percentile is within 25% of the true value
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private static final List<Distribution> ALL = new CopyOnWriteArrayList<>();
+
+    static final Distribution STARTUP = new Distribution("load: startup", Unit.NANOS);
+    static final Distribution FILE_READ = new Distribution("load: data file", Unit.NANOS);
+    static final Distribution SNAPSHOT_WRITE = new Distribution("save: data file", Unit.NANOS);
+    static final Distribution SNAPSHOT_BYTES = new Distribution("save: data file bytes", Unit.BYTES);
+    static final Distribution JOURNAL_WRITE = new Distribution("save: journal", Unit.NANOS);
+    static final Distribution JOURNAL_BYTES = new Distribution("save: journal bytes", Unit.BYTES);
+    static final Distribution DAY_QUERY = new Distribution("query: day", Unit.NANOS);
+    static final Distribution RANGE_QUERY = new Distribution("query: range", Unit.NANOS);
+    static final Distribution MONTH_QUERY = new Distribution("query: month occupancy", Unit.NANOS);
+    static final Distribution SEARCH_QUERY = new Distribution("query: search", Unit.NANOS);
+    static final Distribution DAY_RENDER = new Distribution("render: day", Unit.NANOS);
+    static final Distribution CALENDAR_RENDER = new Distribution("render: calendar", Unit.NANOS);
+    static final Distribution WEEK_RENDER = new Distribution("render: week", Unit.NANOS);
+    static final Distribution AGENDA_RENDER = new Distribution("render: agenda", Unit.NANOS);
+    static final Distribution HTTP_REQUEST = new Distribution("http: request", Unit.NANOS);
+    // how long work posted to the FX thread waited before it ran
+    static final Distribution FX_DELAY = new Distribution("fx: queue delay", Unit.NANOS);
+
+    private Metrics() {
+    }
+
+    static List<Distribution> all() {
+        return ALL;
+    }
+
+    static void resetAll() {
+        ALL.forEach(Distribution::reset);
+    }
+
+    static final class Distribution {
+        private final String name;
+        private final Unit unit;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Distribution(String name, Unit unit) {
+            this.name = name;
+            this.unit = unit;
+            ALL.add(this);
+        }
+
+        String name() { return name; }
+        Unit unit() { return unit; }
+        long count() { return count.sum(); }
+        long sum() { return sum.sum(); }
+        long max() { return max.get(); }
+
+        void record(long value) {
+            value = Math.max(0, value);
+            buckets.incrementAndGet(bucket(value));
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        // Records the time since start (a System.nanoTime() reading); a slow call also becomes a
+        // SlowOperation event while a flight recording is running.
+        void stop(long start) {
+            long elapsed = System.nanoTime() - start;
+            record(elapsed);
+            if (elapsed >= SLOW_NANOS && PlannerEvents.available()) {
+                slow(elapsed);
+            }
+        }
+
+        // kept out of stop() so the common path stays small enough to inline into every caller
+        private void slow(long elapsed) {
+            PlannerEvents.SlowOperation event = new PlannerEvents.SlowOperation();
+            if (event.isEnabled()) {
+                event.operation = name;
+                event.elapsed = elapsed;
+                event.commit();
+            }
+        }
+
+        // The value below which a share p of the recordings fall, to bucket precision; 0 when empty.
+        long percentile(double p) {
+            long total = 0;
+            long[] counts = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= Math.max(1, rank)) {
+                    return Math.min(upperBound(i), max());
+                }
+            }
+            return 0;
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above that, each power of two is split into
+    // SUB_BUCKETS equal ranges.
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,247 @@
+package in.sfit.miniproject;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// Everything scheduled within one month; the unit of loading, caching and persistence.
+// Days are keyed by epoch day. Priority and to-do lists are immutable and replaced on every
+// change, so readers can hand them out without copying.
+class MonthSegment {
+    private final YearMonth month;
+    // tasks of each day in slot order
+    private final DayTable<DaySchedule> tasks;
+    private final DayTable<List<PriorityItem>> priorities;
+    private final DayTable<List<TodoItem>> todos;
+    // each day's tasks merged with its recurring occurrences, built by readers on first use and
+    // dropped when either side changes
+    private final AtomicReferenceArray<List<Task>> listings;
+    // bit (day - 1) set when that day has tasks
+    private int occupancy;
+    // highest journal sequence number reflected in this segment
+    private long lastSeq;
+    private boolean dirty;
+    // use stamp for picking the least recently used month; set by concurrent readers
+    private volatile long lastUsed;
+
+    MonthSegment(YearMonth month) {
+        this.month = month;
+        tasks = new DayTable<>(month);
+        priorities = new DayTable<>(month);
+        todos = new DayTable<>(month);
+        listings = new AtomicReferenceArray<>(month.lengthOfMonth());
+    }
+
+    YearMonth getMonth() { return month; }
+    int getOccupancy() { return occupancy; }
+    long getLastSeq() { return lastSeq; }
+    boolean isDirty() { return dirty; }
+    long getLastUsed() { return lastUsed; }
+    void touch(long stamp) { lastUsed = stamp; }
+    boolean isEmpty() {
+        return tasks.isEmpty() && priorities.isEmpty() && todos.isEmpty();
+    }
+
+    void markChanged(long seq) {
+        lastSeq = Math.max(lastSeq, seq);
+        dirty = true;
+    }
+
+    void markSaved(long seq) {
+        lastSeq = seq;
+        dirty = false;
+    }
+
+    DaySchedule tasksOn(LocalDate date) {
+        return tasks.get(date.toEpochDay());
+    }
+
+    List<Task> allTasks() {
+        List<Task> all = new ArrayList<>();
+        tasks.forEach((day, schedule) -> all.addAll(schedule.tasks()));
+        return all;
+    }
+
+    // Returns the position the task took within its day.
+    int addTask(Task task) {
+        long day = task.getDate().toEpochDay();
+        DaySchedule schedule = tasks.get(day);
+        if (schedule == null) {
+            schedule = new DaySchedule();
+            tasks.put(day, schedule);
+        }
+        occupancy |= dayBit(task.getDate());
+        listings.set(task.getDate().getDayOfMonth() - 1, null);
+        return schedule.add(task);
+    }
+
+    // Returns the position the task had within its day, or -1 when it is not here.
+    int removeTask(Task task) {
+        DaySchedule schedule = tasksOn(task.getDate());
+        int index = schedule == null ? -1 : schedule.remove(task);
+        if (index >= 0) {
+            listings.set(task.getDate().getDayOfMonth() - 1, null);
+        }
+        if (index >= 0 && schedule.isEmpty()) {
+            tasks.put(task.getDate().toEpochDay(), null);
+            occupancy &= ~dayBit(task.getDate());
+        }
+        return index;
+    }
+
+    int indexOfTask(Task task) {
+        DaySchedule schedule = tasksOn(task.getDate());
+        return schedule == null ? -1 : schedule.indexOf(task);
+    }
+
+    // Null until a reader has cached the day's merged listing.
+    List<Task> listing(LocalDate date) {
+        return listings.get(date.getDayOfMonth() - 1);
+    }
+
+    void cacheListing(LocalDate date, List<Task> listing) {
+        listings.set(date.getDayOfMonth() - 1, listing);
+    }
+
+    void clearListing(LocalDate date) {
+        listings.set(date.getDayOfMonth() - 1, null);
+    }
+
+    void clearListings() {
+        for (int i = 0; i < listings.length(); i++) {
+            listings.set(i, null);
+        }
+    }
+
+    // Never null; the list does not change afterwards.
+    List<PriorityItem> prioritiesOn(LocalDate date) {
+        List<PriorityItem> list = priorities.get(date.toEpochDay());
+        return list == null ? List.of() : list;
+    }
+
+    // Returns the position the priority took.
+    int addPriority(LocalDate date, PriorityItem priority) {
+        return append(priorities, date.toEpochDay(), List.of(priority));
+    }
+
+    void addPriorities(LocalDate date, List<PriorityItem> items) {
+        append(priorities, date.toEpochDay(), items);
+    }
+
+    PriorityItem removePriority(LocalDate date, int index) {
+        return remove(priorities, date.toEpochDay(), index);
+    }
+
+    DayTable<List<PriorityItem>> allPriorities() {
+        return priorities;
+    }
+
+    // Never null; the list does not change afterwards.
+    List<TodoItem> todosOn(LocalDate date) {
+        List<TodoItem> list = todos.get(date.toEpochDay());
+        return list == null ? List.of() : list;
+    }
+
+    // Returns the position the to-do took.
+    int addTodo(LocalDate date, TodoItem todo) {
+        return append(todos, date.toEpochDay(), List.of(todo));
+    }
+
+    void addTodos(LocalDate date, List<TodoItem> items) {
+        append(todos, date.toEpochDay(), items);
+    }
+
+    TodoItem removeTodo(LocalDate date, int index) {
+        return remove(todos, date.toEpochDay(), index);
+    }
+
+    DayTable<List<TodoItem>> allTodos() {
+        return todos;
+    }
+
+    void forEachItem(Consumer<Identified> action) {
+        tasks.forEach((day, schedule) -> schedule.tasks().forEach(action));
+        priorities.forEach((day, list) -> list.forEach(action));
+        todos.forEach((day, list) -> list.forEach(action));
+    }
+
+    // Gives ids to items saved before ids existed and points their text-only priorities at the
+    // first task of the day with that name. Returns whether anything changed.
+    boolean assignMissingIds(IdAllocator ids) {
+        boolean[] changed = {false};
+        tasks.forEach((day, schedule) -> {
+            for (Task task : schedule.tasks()) {
+                if (task.getId() == 0) {
+                    task.setId(ids.next());
+                    changed[0] = true;
+                }
+            }
+        });
+        priorities.forEach((day, list) -> {
+            DaySchedule schedule = tasks.get(day);
+            for (PriorityItem priority : list) {
+                if (priority.getId() == 0) {
+                    priority.setId(ids.next());
+                    if (priority.getTaskId() == 0 && schedule != null) {
+                        schedule.tasks().stream().filter(t -> t.getTaskName().equals(priority.getText())).findFirst()
+                                .ifPresent(t -> priority.setTaskId(t.getId()));
+                    }
+                    changed[0] = true;
+                }
+            }
+        });
+        todos.forEach((day, list) -> {
+            for (TodoItem todo : list) {
+                if (todo.getId() == 0) {
+                    todo.setId(ids.next());
+                    changed[0] = true;
+                }
+            }
+        });
+        return changed[0];
+    }
+
+    // Replaces the day's list with a copy that has items appended; returns the first new position.
+    private static <T> int append(DayTable<List<T>> table, long day, List<T> items) {
+        List<T> list = table.get(day);
+        int index = list == null ? 0 : list.size();
+        if (!items.isEmpty()) {
+            List<T> copy = new ArrayList<>(index + items.size());
+            if (list != null) {
+                copy.addAll(list);
+            }
+            copy.addAll(items);
+            table.put(day, Collections.unmodifiableList(copy));
+        }
+        return index;
+    }
+
+    // Replaces the day's list with a copy missing the item at index; null when there is none.
+    private static <T> T remove(DayTable<List<T>> table, long day, int index) {
+        List<T> list = table.get(day);
+        if (list == null || index < 0 || index >= list.size()) {
+            return null;
+        }
+        List<T> copy = new ArrayList<>(list);
+        T removed = copy.remove(index);
+        table.put(day, copy.isEmpty() ? null : Collections.unmodifiableList(copy));
+        return removed;
+    }
+
+    static int dayBit(LocalDate date) {
+        return 1 << (date.getDayOfMonth() - 1);
+    }
+
+    static int indexOfIdentity(List<?> list, Object item) {
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == item) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,125 @@
+package in.sfit.miniproject;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Single background thread that performs all disk writes. Writes scheduled under the same key
+// within the debounce window are coalesced so a burst of clicks costs one write.
+class PersistenceWriter {
+    private static final long DEBOUNCE_MS = 250;
+    private static final System.Logger LOG = System.getLogger(PersistenceWriter.class.getName());
+
+    interface IOTask {
+        void run() throws IOException;
+    }
+
+    private final ScheduledExecutorService executor;
+    private final Map<String, IOTask> pending = new LinkedHashMap<>();
+    // errors reported before a handler is set, delivered to it when it is
+    private final List<IOException> unreported = new ArrayList<>();
+    private Consumer<IOException> errorHandler;
+
+    PersistenceWriter() {
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "persistence-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    void setErrorHandler(Consumer<IOException> errorHandler) {
+        List<IOException> earlier;
+        synchronized (unreported) {
+            this.errorHandler = errorHandler;
+            earlier = new ArrayList<>(unreported);
+            unreported.clear();
+        }
+        earlier.forEach(errorHandler);
+    }
+
+    // Hands a failure to the error handler, or keeps it until one is set.
+    void report(IOException e) {
+        Consumer<IOException> handler;
+        synchronized (unreported) {
+            handler = errorHandler;
+            if (handler == null && !executor.isShutdown()) {
+                unreported.add(e);
+                return;
+            }
+        }
+        if (handler == null) {
+            // nobody asked for it, so at least leave a trace
+            LOG.log(System.Logger.Level.ERROR, e.getMessage(), e);
+            return;
+        }
+        handler.accept(e);
+    }
+
+    // Runs the task after the debounce delay; a newer task for the same key replaces it until then.
+    void schedule(String key, IOTask task) {
+        synchronized (pending) {
+            if (pending.put(key, task) != null) {
+                return;
+            }
+        }
+        executor.schedule(() -> runPending(key), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Runs the task as soon as the writer is free, after everything submitted before it.
+    void submit(IOTask task) {
+        executor.execute(() -> run(task));
+    }
+
+    // Performs every pending write now and waits for the writer to go idle.
+    void flush() {
+        try {
+            executor.submit(() -> {
+                List<IOTask> tasks;
+                synchronized (pending) {
+                    tasks = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+                tasks.forEach(this::run);
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    void shutdown() {
+        flush();
+        executor.shutdown();
+        synchronized (unreported) {
+            unreported.forEach(e -> LOG.log(System.Logger.Level.ERROR, e.getMessage(), e));
+            unreported.clear();
+        }
+    }
+
+    private void runPending(String key) {
+        IOTask task;
+        synchronized (pending) {
+            task = pending.remove(key);
+        }
+        if (task != null) {
+            run(task);
+        }
+    }
+
+    private void run(IOTask task) {
+        try {
+            task.run();
+        } catch (IOException e) {
+            report(e);
+        }
+    }
+}
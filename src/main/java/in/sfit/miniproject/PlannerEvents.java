@@ -0,0 +1,193 @@
+package in.sfit.miniproject;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import java.util.function.Supplier;
+
+// Flight recorder events of the planner, under "Student Planner" in JDK Mission Control. Start a
+// recording with -XX:StartFlightRecording or jcmd <pid> JFR.start.
+final class PlannerEvents {
+    private static final String CATEGORY = "Student Planner";
+
+    // Set once a flight recorder exists in this JVM. Until then no event is created: initializing
+    // an event class switches off escape analysis in parts of the JIT, which costs the read paths
+    // their allocation-free fast path even while nothing is being recorded.
+    private static volatile boolean recorder;
+
+    private PlannerEvents() {
+    }
+
+    static {
+        // called at once when a recorder already exists
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder flightRecorder) {
+                FlightRecorder.addPeriodicEvent(OperationSummary.class, PlannerEvents::emitSummaries);
+                recorder = true;
+            }
+        });
+    }
+
+    // Registers for recorder start; call early so a recording started at launch is seen.
+    static void init() {
+    }
+
+    static boolean available() {
+        return recorder;
+    }
+
+    // A begun event, or null when no recorder exists yet.
+    static <T extends Event> T begin(Supplier<T> factory) {
+        if (!recorder) {
+            return null;
+        }
+        T event = factory.get();
+        event.begin();
+        return event;
+    }
+
+    private static void emitSummaries() {
+        for (Metrics.Distribution distribution : Metrics.all()) {
+            if (distribution.count() == 0) {
+                continue;
+            }
+            OperationSummary event = new OperationSummary();
+            event.operation = distribution.name();
+            event.unit = distribution.unit() == Metrics.Unit.BYTES ? "bytes" : "nanoseconds";
+            event.count = distribution.count();
+            event.p50 = distribution.percentile(0.5);
+            event.p99 = distribution.percentile(0.99);
+            event.max = distribution.max();
+            event.commit();
+        }
+    }
+
+    @Name("in.sfit.miniproject.SegmentRead")
+    @Label("Segment Read")
+    @Category({ CATEGORY, "Persistence" })
+    @Description("A month segment or other data file read from disk")
+    @StackTrace(false)
+    static final class SegmentRead extends Event {
+        @Label("File")
+        String file;
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("in.sfit.miniproject.SnapshotWrite")
+    @Label("Snapshot Write")
+    @Category({ CATEGORY, "Persistence" })
+    @Description("A month segment, the recurring tasks or another data file rewritten as a whole")
+    @StackTrace(false)
+    static final class SnapshotWrite extends Event {
+        @Label("File")
+        String file;
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("in.sfit.miniproject.JournalWrite")
+    @Label("Journal Write")
+    @Category({ CATEGORY, "Persistence" })
+    @Description("Records appended to the journal and flushed")
+    @StackTrace(false)
+    static final class JournalWrite extends Event {
+        @Label("Records")
+        int records;
+        @Label("Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("in.sfit.miniproject.Startup")
+    @Label("Schedule Startup")
+    @Category(CATEGORY)
+    @Description("Opening the schedule: finding months, reading recurring tasks and replaying the journal")
+    @StackTrace(false)
+    static final class Startup extends Event {
+        @Label("Stored Months")
+        int months;
+        @Label("Journal Records")
+        int records;
+    }
+
+    @Name("in.sfit.miniproject.Render")
+    @Label("Render")
+    @Category({ CATEGORY, "UI" })
+    @Description("A view rebuilt on the FX thread")
+    @StackTrace(false)
+    static final class Render extends Event {
+        @Label("View")
+        String view;
+        @Label("Items")
+        int items;
+    }
+
+    @Name("in.sfit.miniproject.HttpRequest")
+    @Label("HTTP Request")
+    @Category({ CATEGORY, "Local API" })
+    @Description("A request to the local HTTP API, from reading it to sending the response")
+    @StackTrace(false)
+    static final class HttpRequest extends Event {
+        @Label("Method")
+        String method;
+        @Label("Path")
+        String path;
+        @Label("Status")
+        int status;
+    }
+
+    @Name("in.sfit.miniproject.SlowOperation")
+    @Label("Slow Operation")
+    @Category(CATEGORY)
+    @Description("A query or other timed call that took a millisecond or more")
+    static final class SlowOperation extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("in.sfit.miniproject.FxStall")
+    @Label("FX Thread Stall")
+    @Category({ CATEGORY, "UI" })
+    @Description("Work posted to the FX thread waited this long before it ran")
+    static final class FxStall extends Event {
+        @Label("Delay")
+        @Timespan(Timespan.NANOSECONDS)
+        long delay;
+    }
+
+    @Name("in.sfit.miniproject.OperationSummary")
+    @Label("Operation Summary")
+    @Category(CATEGORY)
+    @Description("Counts and percentiles of each timed operation since startup or the last reset")
+    @Period("10 s")
+    @StackTrace(false)
+    static final class OperationSummary extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Unit")
+        String unit;
+        @Label("Count")
+        long count;
+        @Label("Median")
+        long p50;
+        @Label("99th Percentile")
+        long p99;
+        @Label("Maximum")
+        long max;
+    }
+}
@@ -0,0 +1,478 @@
+package in.sfit.miniproject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Local HTTP/JSON API for scripts and widgets on the same machine, served from the loopback
+// interface with one virtual thread per request. Task and day objects have the shape of the JSON
+// export.
+//
+//   GET    /api/days/2024-03-11                 the day's tasks, priorities and to-dos
+//   GET    /api/tasks?from=2024-03-11&to=...    tasks of up to a year, by date and slot
+//   POST   /api/days/2024-03-11/tasks           {"name", "slot": "09:00 - 10:00" or "start"/"end", "description"}
+//   PATCH  /api/days/2024-03-11/tasks/42        {"completed": true}
+//   DELETE /api/days/2024-03-11/tasks/42        a one-off task, or that date of a recurring one
+//   GET    /api/metrics                         the distributions of Metrics
+//
+// Requests are only answered for a loopback Host header, and bodies must be sent as
+// application/json, so a web page in the user's browser can neither read the schedule through a
+// rebound DNS name nor post to it with a plain form.
+//
+// Latency target: 99% of requests handled within 10 ms, from reading the request to sending the
+// response, while ServerLoadTest (benchmarks module) runs 2,000 concurrent clients against a
+// 100k task schedule without a failed request.
+final class PlannerServer implements AutoCloseable {
+    static final int DEFAULT_PORT = 8765;
+    static final long TARGET_P99_NANOS = 10_000_000;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int MAX_RANGE_DAYS = 366;
+    private static final String JSON = "application/json; charset=utf-8";
+
+    // Tuning of the JDK server, read once when the first server is created; set on the command line
+    // to override.
+    static {
+        // Headers and body are written separately; with Nagle's algorithm on, the body then waits
+        // for the client's delayed ACK, about 40 ms on every response.
+        setDefault("sun.net.httpserver.nodelay", "true");
+        // Keep-alive connections beyond this many idle ones are closed, and with thousands of
+        // clients polling each would reconnect for almost every request. The default is 200.
+        setDefault("sun.net.httpserver.maxIdleConnections", String.valueOf(BACKLOG));
+    }
+
+    private final ScheduleManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private record Response(int status, String body) {
+    }
+
+    private static final class Failure extends Exception {
+        private static final long serialVersionUID = 1L;
+        private final int status;
+
+        Failure(int status, String message) {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    // Binds at once, so a port in use fails here; port 0 picks a free one.
+    PlannerServer(ScheduleManager manager, int port) throws IOException {
+        this.manager = manager;
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-", 0).factory());
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting, lets requests in progress finish for up to a second and waits for them.
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        PlannerEvents.HttpRequest event = PlannerEvents.begin(PlannerEvents.HttpRequest::new);
+        Response response = null;
+        try (exchange) {
+            try {
+                response = route(exchange);
+            } catch (Failure e) {
+                response = error(e.status, e.getMessage());
+            } catch (IOException e) {
+                // the client sent a broken body or went away while sending it
+                response = error(400, "The request body could not be read");
+            } catch (RuntimeException e) {
+                // to the same handler as storage failures, so it reaches the window or the console
+                manager.reportError(new IOException("The local API could not answer " + exchange.getRequestMethod() + " "
+                        + exchange.getRequestURI().getRawPath() + ": " + e, e));
+                response = error(500, "Internal error");
+            }
+            byte[] body = response.body() == null ? null : response.body().getBytes(StandardCharsets.UTF_8);
+            if (body != null) {
+                exchange.getResponseHeaders().set("Content-Type", JSON);
+            }
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            exchange.sendResponseHeaders(response.status(), body == null ? -1 : body.length);
+            if (body != null) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        } finally {
+            // failed requests count too: they are part of the latency the load test gates on
+            Metrics.HTTP_REQUEST.stop(start);
+            if (event != null && event.shouldCommit()) {
+                event.method = exchange.getRequestMethod();
+                event.path = exchange.getRequestURI().getPath();
+                event.status = response == null ? 500 : response.status();
+                event.commit();
+            }
+        }
+    }
+
+    private Response route(HttpExchange exchange) throws Failure, IOException {
+        checkHost(exchange);
+        String method = exchange.getRequestMethod();
+        String[] path = exchange.getRequestURI().getPath().substring("/api/".length()).split("/");
+        if (path.length == 2 && path[0].equals("days")) {
+            requireMethod(exchange, "GET");
+            return day(date(path[1]));
+        }
+        if (path.length == 3 && path[0].equals("days") && path[2].equals("tasks")) {
+            requireMethod(exchange, "POST");
+            return addTask(date(path[1]), body(exchange));
+        }
+        if (path.length == 4 && path[0].equals("days") && path[2].equals("tasks")) {
+            LocalDate date = date(path[1]);
+            long id = id(path[3]);
+            return switch (method) {
+                case "PATCH" -> completeTask(date, id, body(exchange));
+                case "DELETE" -> deleteTask(date, id);
+                default -> throw notAllowed(exchange, "PATCH, DELETE");
+            };
+        }
+        if (path.length == 1 && path[0].equals("tasks")) {
+            requireMethod(exchange, "GET");
+            Map<String, String> query = query(exchange);
+            return tasksBetween(date(query.get("from")), date(query.get("to")));
+        }
+        if (path.length == 1 && path[0].equals("metrics")) {
+            requireMethod(exchange, "GET");
+            return metrics();
+        }
+        throw new Failure(404, "No such resource");
+    }
+
+    private Response day(LocalDate date) {
+        StringBuilder json = new StringBuilder(512);
+        ScheduleExporter.appendJson(json, new ScheduleManager.DayContents(date, manager.getTasksForDate(date),
+                manager.getPriorities(date), manager.getTodos(date)));
+        return new Response(200, json.toString());
+    }
+
+    private Response tasksBetween(LocalDate from, LocalDate to) throws Failure {
+        if (to.isBefore(from)) {
+            throw new Failure(400, "to is before from");
+        }
+        if (to.toEpochDay() - from.toEpochDay() >= MAX_RANGE_DAYS) {
+            throw new Failure(400, "At most " + MAX_RANGE_DAYS + " days can be read at once");
+        }
+        List<Task> tasks = manager.getTasksBetween(from, to);
+        StringBuilder json = new StringBuilder(64 + tasks.size() * 128);
+        json.append("{\"from\":\"").append(from).append("\",\"to\":\"").append(to).append("\",\"tasks\":[");
+        String separator = "";
+        for (Task task : tasks) {
+            json.append(separator);
+            ScheduleExporter.appendJson(json, task);
+            separator = ",";
+        }
+        return new Response(200, json.append("]}").toString());
+    }
+
+    private Response addTask(LocalDate date, Map<String, Object> body) throws Failure {
+        String name = string(body, "name");
+        if (name == null || name.isBlank()) {
+            throw new Failure(400, "name is required");
+        }
+        String slot = string(body, "slot");
+        if (slot == null && body.containsKey("start")) {
+            slot = string(body, "start") + " - " + string(body, "end");
+        }
+        int[] range = TimeSlots.parse(slot);
+        if (range == null) {
+            throw new Failure(400, "A time slot like \"09:30 - 10:15\" (or start and end) is required");
+        }
+        String description = string(body, "description");
+        Task task = new Task(date, range[0], range[1], name.strip(), description == null ? "" : description);
+        manager.addTask(task);
+        StringBuilder json = new StringBuilder(256);
+        ScheduleExporter.appendJson(json, task);
+        return new Response(201, json.toString());
+    }
+
+    private Response completeTask(LocalDate date, long id, Map<String, Object> body) throws Failure {
+        if (!(body.get("completed") instanceof Boolean completed)) {
+            throw new Failure(400, "completed must be true or false");
+        }
+        manager.setTaskCompleted(task(date, id), completed);
+        // re-read: an occurrence is rebuilt from its series rather than changed in place
+        StringBuilder json = new StringBuilder(256);
+        ScheduleExporter.appendJson(json, task(date, id));
+        return new Response(200, json.toString());
+    }
+
+    private Response deleteTask(LocalDate date, long id) throws Failure {
+        manager.deleteTask(task(date, id));
+        return new Response(204, null);
+    }
+
+    private Response metrics() {
+        StringBuilder json = new StringBuilder("[");
+        String separator = "";
+        for (Metrics.Distribution distribution : Metrics.all()) {
+            json.append(separator).append("{\"name\":");
+            ScheduleExporter.jsonString(json, distribution.name());
+            json.append(",\"unit\":\"").append(distribution.unit() == Metrics.Unit.BYTES ? "bytes" : "nanoseconds")
+                    .append("\",\"count\":").append(distribution.count())
+                    .append(",\"p50\":").append(distribution.percentile(0.5))
+                    .append(",\"p99\":").append(distribution.percentile(0.99))
+                    .append(",\"max\":").append(distribution.max()).append('}');
+            separator = ",";
+        }
+        return new Response(200, json.append(']').toString());
+    }
+
+    private Task task(LocalDate date, long id) throws Failure {
+        for (Task task : manager.getTasksForDate(date)) {
+            if (task.getId() == id) {
+                return task;
+            }
+        }
+        throw new Failure(404, "No task " + id + " on " + date);
+    }
+
+    private static void setDefault(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+
+    private static Response error(int status, String message) {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        ScheduleExporter.jsonString(json, message);
+        return new Response(status, json.append('}').toString());
+    }
+
+    // Only names of the loopback interface: anything else is a page that rebound its own name to
+    // 127.0.0.1.
+    private void checkHost(HttpExchange exchange) throws Failure {
+        String host = exchange.getRequestHeaders().getFirst("Host");
+        String port = ":" + port();
+        if (host == null || !(host.equals("localhost" + port) || host.equals("127.0.0.1" + port)
+                || host.equals("[::1]" + port))) {
+            throw new Failure(403, "Only local requests are served");
+        }
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws Failure {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw notAllowed(exchange, method);
+        }
+    }
+
+    private static Failure notAllowed(HttpExchange exchange, String allowed) {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        return new Failure(405, "Use " + allowed);
+    }
+
+    private static LocalDate date(String text) throws Failure {
+        if (text == null) {
+            throw new Failure(400, "A date like 2024-03-11 is required");
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new Failure(400, "Not a date: " + text);
+        }
+    }
+
+    private static long id(String text) throws Failure {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new Failure(404, "No such task");
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static Map<String, Object> body(HttpExchange exchange) throws Failure, IOException {
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (type == null || !type.toLowerCase(Locale.ROOT).startsWith("application/json")) {
+            throw new Failure(415, "Send the body as application/json");
+        }
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES) {
+            throw new Failure(413, "The body is larger than " + MAX_BODY_BYTES / 1024 + " KB");
+        }
+        return new JsonObjectReader(new String(bytes, StandardCharsets.UTF_8)).read();
+    }
+
+    private static String string(Map<String, Object> body, String key) throws Failure {
+        Object value = body.get(key);
+        if (value != null && !(value instanceof String)) {
+            throw new Failure(400, key + " must be a string");
+        }
+        return (String) value;
+    }
+
+    // Reads one JSON object whose values are strings, numbers, booleans or null, which is all the
+    // API takes. Numbers are kept as their text.
+    private static final class JsonObjectReader {
+        private final String text;
+        private int pos;
+
+        JsonObjectReader(String text) {
+            this.text = text;
+        }
+
+        Map<String, Object> read() throws Failure {
+            Map<String, Object> object = new HashMap<>();
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                char c;
+                do {
+                    String key = readString();
+                    expect(':');
+                    object.put(key, readValue());
+                    c = next();
+                } while (c == ',');
+                if (c != '}') {
+                    throw invalid();
+                }
+            }
+            if (peek() != 0) {
+                throw invalid();
+            }
+            return object;
+        }
+
+        private Object readValue() throws Failure {
+            char c = peek();
+            if (c == '"') {
+                return readString();
+            }
+            if (text.startsWith("true", pos)) {
+                pos += 4;
+                return Boolean.TRUE;
+            }
+            if (text.startsWith("false", pos)) {
+                pos += 5;
+                return Boolean.FALSE;
+            }
+            if (text.startsWith("null", pos)) {
+                pos += 4;
+                return null;
+            }
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (pos == start) {
+                throw new Failure(400, c == '{' || c == '[' ? "Nested values are not supported" : "Invalid JSON");
+            }
+            return text.substring(start, pos);
+        }
+
+        private String readString() throws Failure {
+            expect('"');
+            StringBuilder s = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return s.toString();
+                }
+                if (c != '\\') {
+                    s.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    break;
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> s.append('\n');
+                    case 'r' -> s.append('\r');
+                    case 't' -> s.append('\t');
+                    case 'b' -> s.append('\b');
+                    case 'f' -> s.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) {
+                            throw invalid();
+                        }
+                        try {
+                            s.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw invalid();
+                        }
+                        pos += 4;
+                    }
+                    default -> s.append(escaped);
+                }
+            }
+            throw invalid();
+        }
+
+        private void expect(char c) throws Failure {
+            if (next() != c) {
+                throw invalid();
+            }
+        }
+
+        // The next character that is not white space, consumed; 0 at the end.
+        private char next() {
+            char c = peek();
+            if (c != 0) {
+                pos++;
+            }
+            return c;
+        }
+
+        private char peek() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private static Failure invalid() {
+            return new Failure(400, "Invalid JSON");
+        }
+    }
+}
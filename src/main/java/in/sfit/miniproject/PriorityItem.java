@@ -1,13 +1,39 @@
 package in.sfit.miniproject;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
-class PriorityItem implements Serializable {
+class PriorityItem implements Serializable, Identified {
+    // fixed to the value computed for the original class so old priorities.dat files still load
+    private static final long serialVersionUID = 607202184944013341L;
+    private long id;
+    // the task this priority points at, 0 for free text
+    private long taskId;
+    // the task's name when the priority was set; shown if the task is gone
     private String text;
 
     public PriorityItem(String text) {
-        this.text = text;
+        this.text = StringPool.intern(text);
     }
 
+    public PriorityItem(Task task) {
+        this(task.getId(), task.getTaskName());
+    }
+
+    PriorityItem(long taskId, String text) {
+        this.taskId = taskId;
+        this.text = StringPool.intern(text);
+    }
+
+    public long getId() { return id; }
+    void setId(long id) { this.id = id; }
+    public long getTaskId() { return taskId; }
+    void setTaskId(long taskId) { this.taskId = taskId; }
     public String getText() { return text; }
-}
\ No newline at end of file
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        text = StringPool.intern(text);
+    }
+}
@@ -0,0 +1,93 @@
+package in.sfit.miniproject;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+// When a recurring task repeats: every interval days (DAILY) or every interval weeks on the given
+// weekdays (WEEKLY), starting on start and ending after until or after count occurrences,
+// whichever comes first. until == null and count == 0 mean no end. Weekdays are bits
+// (DayOfWeek.getValue() - 1), weeks run Monday to Sunday and are counted from the week of start.
+// Everything works on epoch days, so matching a date is arithmetic with no expansion.
+record Recurrence(Frequency frequency, int interval, int weekdays, LocalDate start, LocalDate until, int count) {
+    enum Frequency { DAILY, WEEKLY }
+
+    static final int ALL_WEEKDAYS = 0x7F;
+
+    Recurrence {
+        if (interval < 1) {
+            throw new IllegalArgumentException("interval must be at least 1");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("count must not be negative");
+        }
+        if (until != null && until.isBefore(start)) {
+            throw new IllegalArgumentException("until is before start");
+        }
+        weekdays &= ALL_WEEKDAYS;
+        if (frequency == Frequency.WEEKLY && weekdays == 0) {
+            weekdays = weekdayBit(start.getDayOfWeek());
+        }
+    }
+
+    static Recurrence daily(LocalDate start) {
+        return new Recurrence(Frequency.DAILY, 1, 0, start, null, 0);
+    }
+
+    static Recurrence weekly(LocalDate start, DayOfWeek... days) {
+        int bits = 0;
+        for (DayOfWeek day : days) {
+            bits |= weekdayBit(day);
+        }
+        return new Recurrence(Frequency.WEEKLY, 1, bits, start, null, 0);
+    }
+
+    Recurrence endingOn(LocalDate until) {
+        return new Recurrence(frequency, interval, weekdays, start, until, count);
+    }
+
+    Recurrence endingAfter(int count) {
+        return new Recurrence(frequency, interval, weekdays, start, until, count);
+    }
+
+    static int weekdayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    boolean matches(LocalDate date) {
+        return matches(date.toEpochDay());
+    }
+
+    boolean matches(long epochDay) {
+        long first = start.toEpochDay();
+        if (epochDay < first || (until != null && epochDay > until.toEpochDay())) {
+            return false;
+        }
+        long offset = epochDay - first;
+        if (frequency == Frequency.DAILY) {
+            return offset % interval == 0 && (count == 0 || offset / interval < count);
+        }
+        if ((weekdays & (1 << weekday(epochDay))) == 0 || weekOf(epochDay) % interval != 0) {
+            return false;
+        }
+        return count == 0 || occurrencesBefore(epochDay) < count;
+    }
+
+    // Pattern days in [start, epochDay), ignoring until and count.
+    private long occurrencesBefore(long epochDay) {
+        long first = start.toEpochDay();
+        long activeWeeks = (weekOf(epochDay) + interval - 1) / interval;
+        return activeWeeks * Integer.bitCount(weekdays)
+                + Integer.bitCount(weekdays & ((1 << weekday(epochDay)) - 1))
+                - Integer.bitCount(weekdays & ((1 << weekday(first)) - 1));
+    }
+
+    private long weekOf(long epochDay) {
+        long first = start.toEpochDay();
+        return (epochDay - weekday(epochDay) - (first - weekday(first))) / 7;
+    }
+
+    // 0 for Monday; epoch day 0 was a Thursday
+    private static int weekday(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+}
@@ -0,0 +1,79 @@
+package in.sfit.miniproject;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+
+// A task stored once with its recurrence and turned into a Task only for the dates being looked
+// at. Skipped and completed occurrences are the only per-date state, kept as bits by day offset
+// from the recurrence start, so an unbounded series costs nothing for dates nobody touched.
+class RecurringTask implements Identified {
+    private long id;
+    private final Recurrence recurrence;
+    private final int startMinute;
+    private final int endMinute;
+    private final String taskName;
+    private final String description;
+    private final BitSet skipped;
+    private final BitSet completed;
+
+    public RecurringTask(Recurrence recurrence, int startMinute, int endMinute, String taskName, String description) {
+        this(recurrence, startMinute, endMinute, taskName, description, new BitSet(), new BitSet());
+    }
+
+    RecurringTask(Recurrence recurrence, int startMinute, int endMinute, String taskName, String description,
+                  BitSet skipped, BitSet completed) {
+        this.recurrence = recurrence;
+        this.startMinute = startMinute;
+        this.endMinute = endMinute;
+        this.taskName = StringPool.intern(taskName);
+        this.description = description;
+        this.skipped = skipped;
+        this.completed = completed;
+    }
+
+    public long getId() { return id; }
+    void setId(long id) { this.id = id; }
+    public Recurrence getRecurrence() { return recurrence; }
+    public int getStartMinute() { return startMinute; }
+    public int getEndMinute() { return endMinute; }
+    public String getTaskName() { return taskName; }
+    public String getDescription() { return description; }
+    BitSet getSkipped() { return skipped; }
+    BitSet getCompleted() { return completed; }
+
+    public boolean occursOn(LocalDate date) {
+        return occursOn(date.toEpochDay());
+    }
+
+    boolean occursOn(long epochDay) {
+        return recurrence.matches(epochDay) && !skipped.get(offset(epochDay));
+    }
+
+    public boolean isCompleted(LocalDate date) {
+        return completed.get(offset(date.toEpochDay()));
+    }
+
+    void setCompleted(LocalDate date, boolean done) {
+        completed.set(offset(date.toEpochDay()), done);
+    }
+
+    // Drops one occurrence from the series.
+    void skip(LocalDate date) {
+        int offset = offset(date.toEpochDay());
+        skipped.set(offset);
+        completed.clear(offset);
+    }
+
+    // The occurrence on date as a Task carrying this series' id.
+    Task occurrence(LocalDate date) {
+        Task task = new Task(date, startMinute, endMinute, taskName, description);
+        task.setId(id);
+        task.setSeriesId(id);
+        task.setCompleted(isCompleted(date));
+        return task;
+    }
+
+    private int offset(long epochDay) {
+        return Math.toIntExact(epochDay - recurrence.start().toEpochDay());
+    }
+}
@@ -0,0 +1,11 @@
+package in.sfit.miniproject;
+
+import java.time.LocalDate;
+
+// One applied mutation. index is the item's position within its day: after insertion for ADDED,
+// before removal for REMOVED, and its current position for UPDATED. A SERIES change touches every
+// date the recurring task occurs on; date is the start of its recurrence and index is 0.
+record ScheduleChange(Type type, Section section, LocalDate date, int index, Object item) {
+    enum Type { ADDED, REMOVED, UPDATED }
+    enum Section { TASK, PRIORITY, TODO, SERIES }
+}
@@ -0,0 +1,502 @@
+package in.sfit.miniproject;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+// Versioned binary format of the month segments and recurring tasks in data/. The tasks, todos and
+// priorities kinds are the .dat snapshots written before month segments; they are only read, to
+// migrate them.
+//
+//   header   magic "SDPL", u8 version, u8 kind, i64 journal generation
+//   strings  varint count, then per string: varint byte length + UTF-8 bytes
+//   body     tasks:      varint count, per task: i32 epoch day, varlong id, i16 start minute, i16 end minute,
+//                        [varint slot string when start minute is -1], varint name, varint description, u8 flags
+//            todos:      varint day count, per day: i32 epoch day, varint count,
+//                        per item: varlong id, varint text, u8 flags
+//            priorities: varint day count, per day: i32 epoch day, varint count,
+//                        per item: varlong id, varlong task id (0 for free text), varint text
+//            segment:    the tasks, todos and priorities bodies of one month, in that order (since v2);
+//                        the generation field holds the last journal sequence number applied
+//            series:     varint count, per recurring task: varlong id, u8 frequency, varint interval,
+//                        u8 weekdays, i32 start epoch day, u8 flags, [i32 until epoch day when flag 1],
+//                        varint occurrence count, i16 start minute, i16 end minute, varint name,
+//                        varint description, then the skipped and completed day offsets as
+//                        bit sets (varint word count + i64 words each)
+//
+// Ids were added in v3; items read from older files have id 0 until the manager assigns one.
+//
+// Strings are written once in the table and referenced by index. .dat files written by Java
+// serialization before this format existed are still readable.
+final class ScheduleCodec {
+    static final int VERSION = 3;
+    private static final int MAGIC = 0x5344504C; // "SDPL"
+    private static final short JAVA_SERIALIZATION_MAGIC = (short) 0xACED;
+    private static final byte KIND_TASKS = 1;
+    private static final byte KIND_PRIORITIES = 2;
+    private static final byte KIND_TODOS = 3;
+    private static final byte KIND_SEGMENT = 4;
+    private static final byte KIND_SERIES = 5;
+    private static final int FLAG_COMPLETED = 1;
+    private static final int FLAG_UNTIL = 1;
+    private static final int NO_SLOT = -1;
+
+    record Snapshot<T>(long generation, T data) {}
+
+    private ScheduleCodec() {
+    }
+
+    // Encodes a month in memory so the caller can release its lock before the file is written.
+    static Encoder encodeSegment(MonthSegment segment) {
+        Encoder enc = new Encoder(KIND_SEGMENT, segment.getLastSeq());
+        List<Task> tasks = segment.allTasks();
+        DayTable<List<TodoItem>> todos = segment.allTodos();
+        DayTable<List<PriorityItem>> priorities = segment.allPriorities();
+        internTasks(enc, tasks);
+        todos.forEach((day, list) -> list.forEach(t -> enc.intern(t.getText())));
+        priorities.forEach((day, list) -> list.forEach(p -> enc.intern(p.getText())));
+        putTasks(enc, tasks);
+        enc.body.putVarint(todos.size());
+        todos.forEach((day, list) -> putTodoDay(enc, day, list));
+        enc.body.putVarint(priorities.size());
+        priorities.forEach((day, list) -> putPriorityDay(enc, day, list));
+        return enc;
+    }
+
+    static Encoder encodeSeries(List<RecurringTask> series) {
+        Encoder enc = new Encoder(KIND_SERIES, 0);
+        for (RecurringTask task : series) {
+            enc.intern(task.getTaskName());
+            enc.intern(task.getDescription());
+        }
+        enc.body.putVarint(series.size());
+        for (RecurringTask task : series) {
+            Recurrence rule = task.getRecurrence();
+            enc.body.putVarlong(task.getId());
+            enc.body.putByte(rule.frequency().ordinal()).putVarint(rule.interval()).putByte(rule.weekdays());
+            enc.body.putInt((int) rule.start().toEpochDay());
+            if (rule.until() != null) {
+                enc.body.putByte(FLAG_UNTIL).putInt((int) rule.until().toEpochDay());
+            } else {
+                enc.body.putByte(0);
+            }
+            enc.body.putVarint(rule.count());
+            enc.body.putShort(task.getStartMinute()).putShort(task.getEndMinute());
+            enc.body.putVarint(enc.ref(task.getTaskName()));
+            enc.body.putVarint(enc.ref(task.getDescription()));
+            putBits(enc, task.getSkipped());
+            putBits(enc, task.getCompleted());
+        }
+        return enc;
+    }
+
+    // Returns null when no recurring task was ever saved.
+    static Snapshot<List<RecurringTask>> readSeries(Path file) throws IOException {
+        return read(file, KIND_SERIES, dec -> {
+            int count = dec.varint();
+            List<RecurringTask> series = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = dec.varlong();
+                Recurrence.Frequency frequency = Recurrence.Frequency.values()[dec.buf.get()];
+                int interval = dec.varint();
+                int weekdays = dec.buf.get();
+                LocalDate start = LocalDate.ofEpochDay(dec.buf.getInt());
+                LocalDate until = (dec.buf.get() & FLAG_UNTIL) != 0 ? LocalDate.ofEpochDay(dec.buf.getInt()) : null;
+                Recurrence rule = new Recurrence(frequency, interval, weekdays, start, until, dec.varint());
+                int startMinute = dec.buf.getShort();
+                int endMinute = dec.buf.getShort();
+                RecurringTask task = new RecurringTask(rule, startMinute, endMinute, dec.string(), dec.string(),
+                        getBits(dec), getBits(dec));
+                task.setId(id);
+                series.add(task);
+            }
+            return series;
+        });
+    }
+
+    private static void putBits(Encoder enc, BitSet bits) {
+        long[] words = bits.toLongArray();
+        enc.body.putVarint(words.length);
+        for (long word : words) {
+            enc.body.putLong(word);
+        }
+    }
+
+    private static BitSet getBits(Decoder dec) {
+        long[] words = new long[dec.varint()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = dec.buf.getLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    // Returns null when the month has never been saved.
+    static MonthSegment readSegment(Path file, YearMonth month) throws IOException {
+        Snapshot<MonthSegment> snapshot = read(file, KIND_SEGMENT, dec -> {
+            MonthSegment segment = new MonthSegment(month);
+            getTasks(dec).forEach(segment::addTask);
+            getTodos(dec).forEach((key, list) -> segment.addTodos(LocalDate.parse(key), list));
+            getPriorities(dec).forEach((key, list) -> segment.addPriorities(LocalDate.parse(key), list));
+            return segment;
+        });
+        if (snapshot == null) {
+            return null;
+        }
+        snapshot.data().markSaved(snapshot.generation());
+        return snapshot.data();
+    }
+
+    private static void internTasks(Encoder enc, List<Task> tasks) {
+        for (Task task : tasks) {
+            if (!task.hasTimeRange()) {
+                enc.intern(task.getTimeSlot());
+            }
+            enc.intern(task.getTaskName());
+            enc.intern(task.getDescription());
+        }
+    }
+
+    private static void putTasks(Encoder enc, List<Task> tasks) {
+        enc.body.putVarint(tasks.size());
+        for (Task task : tasks) {
+            enc.body.putInt((int) task.getDate().toEpochDay());
+            enc.body.putVarlong(task.getId());
+            if (task.hasTimeRange()) {
+                enc.body.putShort(task.getStartMinute()).putShort(task.getEndMinute());
+            } else {
+                enc.body.putShort(NO_SLOT).putShort(NO_SLOT).putVarint(enc.ref(task.getTimeSlot()));
+            }
+            enc.body.putVarint(enc.ref(task.getTaskName()));
+            enc.body.putVarint(enc.ref(task.getDescription()));
+            enc.body.putByte(task.isCompleted() ? FLAG_COMPLETED : 0);
+        }
+    }
+
+    private static void putPriorityDay(Encoder enc, long epochDay, List<PriorityItem> priorities) {
+        enc.body.putInt((int) epochDay);
+        enc.body.putVarint(priorities.size());
+        for (PriorityItem priority : priorities) {
+            enc.body.putVarlong(priority.getId()).putVarlong(priority.getTaskId());
+            enc.body.putVarint(enc.ref(priority.getText()));
+        }
+    }
+
+    private static void putTodoDay(Encoder enc, long epochDay, List<TodoItem> todos) {
+        enc.body.putInt((int) epochDay);
+        enc.body.putVarint(todos.size());
+        for (TodoItem todo : todos) {
+            enc.body.putVarlong(todo.getId());
+            enc.body.putVarint(enc.ref(todo.getText()));
+            enc.body.putByte(todo.isCompleted() ? FLAG_COMPLETED : 0);
+        }
+    }
+
+    // Returns null when the file does not exist.
+    static Snapshot<List<Task>> readTasks(Path file) throws IOException {
+        return read(file, KIND_TASKS, ScheduleCodec::getTasks);
+    }
+
+    static Snapshot<Map<String, List<PriorityItem>>> readPriorities(Path file) throws IOException {
+        return read(file, KIND_PRIORITIES, ScheduleCodec::getPriorities);
+    }
+
+    static Snapshot<Map<String, List<TodoItem>>> readTodos(Path file) throws IOException {
+        return read(file, KIND_TODOS, ScheduleCodec::getTodos);
+    }
+
+    private static List<Task> getTasks(Decoder dec) {
+        int count = dec.varint();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = LocalDate.ofEpochDay(dec.buf.getInt());
+            long id = dec.version >= 3 ? dec.varlong() : 0;
+            int start = dec.buf.getShort();
+            int end = dec.buf.getShort();
+            Task task = start == NO_SLOT
+                    ? new Task(date, dec.string(), dec.string(), dec.string())
+                    : new Task(date, start, end, dec.string(), dec.string());
+            task.setId(id);
+            task.setCompleted((dec.buf.get() & FLAG_COMPLETED) != 0);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private static Map<String, List<PriorityItem>> getPriorities(Decoder dec) {
+        int days = dec.varint();
+        Map<String, List<PriorityItem>> priorities = new HashMap<>();
+        for (int d = 0; d < days; d++) {
+            String key = LocalDate.ofEpochDay(dec.buf.getInt()).toString();
+            int count = dec.varint();
+            List<PriorityItem> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = dec.version >= 3 ? dec.varlong() : 0;
+                long taskId = dec.version >= 3 ? dec.varlong() : 0;
+                PriorityItem priority = new PriorityItem(taskId, dec.string());
+                priority.setId(id);
+                list.add(priority);
+            }
+            priorities.put(key, list);
+        }
+        return priorities;
+    }
+
+    private static Map<String, List<TodoItem>> getTodos(Decoder dec) {
+        int days = dec.varint();
+        Map<String, List<TodoItem>> todos = new HashMap<>();
+        for (int d = 0; d < days; d++) {
+            String key = LocalDate.ofEpochDay(dec.buf.getInt()).toString();
+            int count = dec.varint();
+            List<TodoItem> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = dec.version >= 3 ? dec.varlong() : 0;
+                TodoItem todo = new TodoItem(dec.string());
+                todo.setId(id);
+                todo.setCompleted((dec.buf.get() & FLAG_COMPLETED) != 0);
+                list.add(todo);
+            }
+            todos.put(key, list);
+        }
+        return todos;
+    }
+
+    private interface BodyReader<T> {
+        T read(Decoder dec);
+    }
+
+    private static <T> Snapshot<T> read(Path file, byte kind, BodyReader<T> reader) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        long start = System.nanoTime();
+        PlannerEvents.SegmentRead event = PlannerEvents.begin(PlannerEvents.SegmentRead::new);
+        try {
+            return read(file, kind, reader, event);
+        } finally {
+            Metrics.FILE_READ.stop(start);
+            if (event != null && event.shouldCommit()) {
+                event.file = file.getFileName().toString();
+                event.commit();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Snapshot<T> read(Path file, byte kind, BodyReader<T> reader, PlannerEvents.SegmentRead event)
+            throws IOException {
+        ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buf = ByteBuffer.allocate((int) channel.size());
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                // keep reading until the whole file is in memory
+            }
+        }
+        buf.flip();
+        if (event != null) {
+            event.bytes = buf.remaining();
+        }
+        if (buf.remaining() >= 2 && buf.getShort(0) == JAVA_SERIALIZATION_MAGIC) {
+            return readLegacy(file);
+        }
+        if (buf.remaining() < 14 || buf.getInt() != MAGIC) {
+            throw new IOException(file + " is not a planner data file");
+        }
+        int version = buf.get() & 0xFF;
+        if (version > VERSION) {
+            throw new IOException(file + " was written by a newer version (format " + version + ")");
+        }
+        if (buf.get() != kind) {
+            throw new IOException(file + " holds a different kind of data");
+        }
+        long generation = buf.getLong();
+        Decoder dec = new Decoder(buf, version);
+        try {
+            return new Snapshot<>(generation, reader.read(dec));
+        } catch (RuntimeException e) {
+            throw new IOException(file + " is corrupt", e);
+        }
+    }
+
+    // Files written with ObjectOutputStream, optionally prefixed with a Long journal generation.
+    @SuppressWarnings("unchecked")
+    private static <T> Snapshot<T> readLegacy(Path file) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Object data = ois.readObject();
+            long generation = 0;
+            if (data instanceof Long gen) {
+                generation = gen;
+                data = ois.readObject();
+            }
+            return new Snapshot<>(generation, (T) data);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    // Forces a directory entry change, such as a rename into it, to disk. Some platforms cannot
+    // open a directory; there the rename is as durable as the file system makes it.
+    static void syncDirectory(Path directory) throws IOException {
+        if (directory == null) {
+            directory = Path.of("").toAbsolutePath();
+        }
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException | UnsupportedOperationException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    static final class Encoder {
+        private final byte kind;
+        private final long generation;
+        private final Map<String, Integer> strings = new LinkedHashMap<>();
+        private final Bytes body = new Bytes(4096);
+
+        Encoder(byte kind, long generation) {
+            this.kind = kind;
+            this.generation = generation;
+        }
+
+        void intern(String s) {
+            strings.putIfAbsent(s == null ? "" : s, strings.size());
+        }
+
+        int ref(String s) {
+            return strings.get(s == null ? "" : s);
+        }
+
+        // Writes to a temporary file, forced to disk before it replaces the old one, so a crash
+        // leaves either the old snapshot or the new one but never a half-written file.
+        void writeTo(Path file) throws IOException {
+            long start = System.nanoTime();
+            PlannerEvents.SnapshotWrite event = PlannerEvents.begin(PlannerEvents.SnapshotWrite::new);
+            Bytes head = new Bytes(256);
+            head.putInt(MAGIC).putByte(VERSION).putByte(kind).putLong(generation);
+            head.putVarint(strings.size());
+            for (String s : strings.keySet()) {
+                byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+                head.putVarint(utf8.length).putBytes(utf8);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            long size;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer[] buffers = { head.flipped(), body.flipped() };
+                size = buffers[0].remaining() + buffers[1].remaining();
+                while (buffers[1].hasRemaining()) {
+                    channel.write(buffers);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(file.getParent());
+            Metrics.SNAPSHOT_WRITE.stop(start);
+            Metrics.SNAPSHOT_BYTES.record(size);
+            if (event != null && event.shouldCommit()) {
+                event.file = file.getFileName().toString();
+                event.bytes = size;
+                event.commit();
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer buf;
+        private final int version;
+        private final String[] strings;
+
+        Decoder(ByteBuffer buf, int version) {
+            this.buf = buf;
+            this.version = version;
+            strings = new String[varint()];
+            for (int i = 0; i < strings.length; i++) {
+                int length = varint();
+                strings[i] = new String(buf.array(), buf.arrayOffset() + buf.position(), length, StandardCharsets.UTF_8);
+                buf.position(buf.position() + length);
+            }
+        }
+
+        String string() {
+            return strings[varint()];
+        }
+
+        int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buf.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    // Growable heap buffer.
+    private static final class Bytes {
+        private ByteBuffer buf;
+
+        Bytes(int capacity) {
+            buf = ByteBuffer.allocate(capacity);
+        }
+
+        Bytes putByte(int v) { ensure(1); buf.put((byte) v); return this; }
+        Bytes putShort(int v) { ensure(2); buf.putShort((short) v); return this; }
+        Bytes putInt(int v) { ensure(4); buf.putInt(v); return this; }
+        Bytes putLong(long v) { ensure(8); buf.putLong(v); return this; }
+        Bytes putBytes(byte[] v) { ensure(v.length); buf.put(v); return this; }
+
+        Bytes putVarint(int v) {
+            ensure(5);
+            while ((v & ~0x7F) != 0) {
+                buf.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+            return this;
+        }
+
+        Bytes putVarlong(long v) {
+            ensure(10);
+            while ((v & ~0x7FL) != 0) {
+                buf.put((byte) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            buf.put((byte) v);
+            return this;
+        }
+
+        ByteBuffer flipped() {
+            return buf.duplicate().flip();
+        }
+
+        private void ensure(int extra) {
+            if (buf.remaining() < extra) {
+                ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + extra));
+                buf.flip();
+                bigger.put(buf);
+                buf = bigger;
+            }
+        }
+    }
+}
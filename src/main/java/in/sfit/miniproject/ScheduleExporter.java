@@ -0,0 +1,339 @@
+package in.sfit.miniproject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.DoubleConsumer;
+
+// Writes the schedule between two dates as iCalendar, CSV or JSON. Days stream from
+// ScheduleManager.forEachDay straight into the file, so memory stays at one month however long
+// the range is; the file is written beside the target and moved into place once complete.
+//
+// iCalendar: tasks are VEVENTs in floating local time, one per date for recurring tasks, with
+// PRIORITY:1 on tasks set as a priority; to-dos and other priorities are VTODOs due on their date.
+// CSV: one row per item with a kind column (task, priority or todo); TimetableImporter reads the
+// tasks back. JSON: {"from", "to", "days": [{"date", "tasks", "priorities", "todos"}]}.
+final class ScheduleExporter {
+    enum Format {
+        ICS("iCalendar", "ics"), CSV("CSV", "csv"), JSON("JSON", "json");
+
+        final String label;
+        final String extension;
+
+        Format(String label, String extension) {
+            this.label = label;
+            this.extension = extension;
+        }
+
+        // The format a file name asks for, or null.
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (name.endsWith("." + format.extension)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    private static final String UID_DOMAIN = "@student-planner";
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+    // iCalendar lines are folded after this many bytes
+    private static final int ICS_LINE_BYTES = 75;
+
+    private final Writer out;
+    private final Format format;
+    private final String stamp = ZonedDateTime.now(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+    private boolean firstDay = true;
+
+    private ScheduleExporter(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    // Returns the number of days written. progress gets the share of the range done, at most once
+    // per percent, on the calling thread.
+    static int export(ScheduleManager manager, LocalDate from, LocalDate to, Format format, Path file,
+                      DoubleConsumer progress) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        long span = to.toEpochDay() - from.toEpochDay() + 1;
+        int[] written = { 0, 0 };
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            ScheduleExporter exporter = new ScheduleExporter(out, format);
+            exporter.begin(from, to);
+            manager.forEachDay(from, to, day -> {
+                exporter.day(day);
+                written[0]++;
+                int percent = (int) ((day.date().toEpochDay() - from.toEpochDay() + 1) * 100 / span);
+                if (percent > written[1]) {
+                    written[1] = percent;
+                    progress.accept(percent / 100.0);
+                }
+            });
+            exporter.end();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        progress.accept(1);
+        return written[0];
+    }
+
+    private void begin(LocalDate from, LocalDate to) throws IOException {
+        switch (format) {
+            case ICS -> {
+                icsLine("BEGIN:VCALENDAR");
+                icsLine("VERSION:2.0");
+                icsLine("PRODID:-//SFIT//Student Daily Planner//EN");
+                icsLine("CALSCALE:GREGORIAN");
+            }
+            case CSV -> out.write("date,kind,time slot,name,description,completed\r\n");
+            case JSON -> out.write("{\"from\":\"" + from + "\",\"to\":\"" + to + "\",\"days\":[");
+        }
+    }
+
+    private void day(ScheduleManager.DayContents day) throws IOException {
+        switch (format) {
+            case ICS -> icsDay(day);
+            case CSV -> csvDay(day);
+            case JSON -> jsonDay(day);
+        }
+        firstDay = false;
+    }
+
+    private void end() throws IOException {
+        switch (format) {
+            case ICS -> icsLine("END:VCALENDAR");
+            case CSV -> { }
+            case JSON -> out.write(firstDay ? "]}\n" : "\n]}\n");
+        }
+    }
+
+    private void icsDay(ScheduleManager.DayContents day) throws IOException {
+        LocalDate date = day.date();
+        String icsDate = date.format(ICS_DATE);
+        Set<Long> prioritized = new HashSet<>();
+        for (PriorityItem priority : day.priorities()) {
+            prioritized.add(priority.getTaskId());
+        }
+        for (Task task : day.tasks()) {
+            icsLine("BEGIN:VEVENT");
+            icsLine("UID:" + (task.isOccurrence() ? "series-" + task.getSeriesId() + "-" + icsDate
+                    : "task-" + task.getId()) + UID_DOMAIN);
+            icsLine("DTSTAMP:" + stamp);
+            String description = task.getDescription();
+            if (task.hasTimeRange()) {
+                icsLine("DTSTART:" + icsDateTime(icsDate, date, task.getStartMinute()));
+                icsLine("DTEND:" + icsDateTime(icsDate, date, task.getEndMinute()));
+            } else {
+                // a slot from before slots were structured; keep its text
+                icsLine("DTSTART;VALUE=DATE:" + icsDate);
+                icsLine("DTEND;VALUE=DATE:" + date.plusDays(1).format(ICS_DATE));
+                description = task.getTimeSlot() + (description == null || description.isEmpty() ? "" : "\n" + description);
+            }
+            icsLine("SUMMARY:" + icsText(task.getTaskName()));
+            if (description != null && !description.isEmpty()) {
+                icsLine("DESCRIPTION:" + icsText(description));
+            }
+            if (prioritized.remove(task.getId())) {
+                icsLine("PRIORITY:1");
+            }
+            icsLine("END:VEVENT");
+        }
+        for (PriorityItem priority : day.priorities()) {
+            if (prioritized.contains(priority.getTaskId())) {
+                icsTodo("priority-" + priority.getId(), icsDate, priority.getText(), false, true);
+            }
+        }
+        for (TodoItem todo : day.todos()) {
+            icsTodo("todo-" + todo.getId(), icsDate, todo.getText(), todo.isCompleted(), false);
+        }
+    }
+
+    private void icsTodo(String uid, String icsDate, String text, boolean completed, boolean priority) throws IOException {
+        icsLine("BEGIN:VTODO");
+        icsLine("UID:" + uid + UID_DOMAIN);
+        icsLine("DTSTAMP:" + stamp);
+        icsLine("DUE;VALUE=DATE:" + icsDate);
+        icsLine("SUMMARY:" + icsText(text));
+        icsLine("STATUS:" + (completed ? "COMPLETED" : "NEEDS-ACTION"));
+        if (priority) {
+            icsLine("PRIORITY:1");
+        }
+        icsLine("END:VTODO");
+    }
+
+    private static String icsText(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> escaped.append('\\').append(c);
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    // Writes one content line, folded so no line is longer than ICS_LINE_BYTES of UTF-8.
+    private void icsLine(String line) throws IOException {
+        int start = 0;
+        int bytes = 0;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (bytes + size > ICS_LINE_BYTES) {
+                out.write(line, start, i - start);
+                out.write("\r\n ");
+                start = i;
+                bytes = 1;
+            }
+            bytes += size;
+            i += Character.charCount(codePoint);
+        }
+        out.write(line, start, line.length() - start);
+        out.write("\r\n");
+    }
+
+    // Floating local time on date (already formatted as icsDate); minute may be MINUTES_PER_DAY
+    // for midnight at the end of the day.
+    private static String icsDateTime(String icsDate, LocalDate date, int minute) {
+        if (minute == TimeSlots.MINUTES_PER_DAY) {
+            return date.plusDays(1).format(ICS_DATE) + "T000000";
+        }
+        String time = TimeSlots.formatTime(minute);
+        return icsDate + 'T' + time.substring(0, 2) + time.substring(3) + "00";
+    }
+
+    private void csvDay(ScheduleManager.DayContents day) throws IOException {
+        String date = day.date().toString();
+        for (Task task : day.tasks()) {
+            csvRow(date, "task", task.getTimeSlot(), task.getTaskName(), task.getDescription(), task.isCompleted());
+        }
+        for (PriorityItem priority : day.priorities()) {
+            csvRow(date, "priority", "", priority.getText(), "", false);
+        }
+        for (TodoItem todo : day.todos()) {
+            csvRow(date, "todo", "", todo.getText(), "", todo.isCompleted());
+        }
+    }
+
+    private void csvRow(String date, String kind, String slot, String name, String description, boolean completed) throws IOException {
+        out.write(date + ',' + kind + ',' + csvField(slot) + ',' + csvField(name) + ',' + csvField(description)
+                + ',' + completed + "\r\n");
+    }
+
+    private static String csvField(String text) {
+        if (text == null) {
+            return "";
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+
+    private void jsonDay(ScheduleManager.DayContents day) throws IOException {
+        StringBuilder json = new StringBuilder(firstDay ? "\n" : ",\n");
+        appendJson(json, day);
+        out.append(json);
+    }
+
+    // The day and task objects of the JSON format, shared with PlannerServer.
+    static void appendJson(StringBuilder json, ScheduleManager.DayContents day) {
+        json.append("{\"date\":\"").append(day.date()).append("\",\"tasks\":[");
+        String separator = "";
+        for (Task task : day.tasks()) {
+            json.append(separator);
+            appendJson(json, task);
+            separator = ",";
+        }
+        json.append("],\"priorities\":[");
+        separator = "";
+        for (PriorityItem priority : day.priorities()) {
+            json.append(separator).append("{\"id\":").append(priority.getId())
+                    .append(",\"taskId\":").append(priority.getTaskId()).append(",\"text\":");
+            jsonString(json, priority.getText());
+            json.append('}');
+            separator = ",";
+        }
+        json.append("],\"todos\":[");
+        separator = "";
+        for (TodoItem todo : day.todos()) {
+            json.append(separator).append("{\"id\":").append(todo.getId()).append(",\"text\":");
+            jsonString(json, todo.getText());
+            json.append(",\"completed\":").append(todo.isCompleted()).append('}');
+            separator = ",";
+        }
+        json.append("]}");
+    }
+
+    static void appendJson(StringBuilder json, Task task) {
+        json.append("{\"id\":").append(task.getId());
+        if (task.isOccurrence()) {
+            json.append(",\"seriesId\":").append(task.getSeriesId());
+        }
+        json.append(",\"slot\":");
+        jsonString(json, task.getTimeSlot());
+        if (task.hasTimeRange()) {
+            json.append(",\"start\":\"").append(TimeSlots.formatTime(task.getStartMinute()))
+                    .append("\",\"end\":\"").append(TimeSlots.formatTime(task.getEndMinute())).append('"');
+        }
+        json.append(",\"name\":");
+        jsonString(json, task.getTaskName());
+        json.append(",\"description\":");
+        jsonString(json, task.getDescription());
+        json.append(",\"completed\":").append(task.isCompleted()).append('}');
+    }
+
+    // Copies the runs between escaped characters whole; most text has nothing to escape.
+    static void jsonString(StringBuilder json, String text) {
+        if (text == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        int copied = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            json.append(text, copied, i);
+            copied = i + 1;
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> json.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        json.append(text, copied, text.length()).append('"');
+    }
+}
@@ -1,134 +1,1518 @@
 package in.sfit.miniproject;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+// Schedule data is stored as one segment file per month under data/ and loaded on demand.
+// At most MAX_RESIDENT_MONTHS segments stay in memory; the least recently used one is
+// written out (if changed) and dropped when another month is needed.
+//
+// Thread safety: every public method is atomic. Mutators hold the write lock, so changes apply one
+// at a time in a single order and none is lost. Reads of months already in memory share the read
+// lock and run in parallel with each other; a read sees every change that completed before it
+// began and none that began after it ended. Returned lists are immutable snapshots shared between
+// callers and never change after being returned, but the Task, PriorityItem and TodoItem objects
+// in them are the live ones. Listeners run on the mutating thread while the
+// write lock is held, so they may read the manager but must not block on another thread that does.
 class ScheduleManager {
-    private List<Task> tasks;
-    private Map<String, List<PriorityItem>> priorities;
-    private Map<String, List<TodoItem>> todos;
+    // single-file layout used before month segments, migrated on startup
     private static final String TASKS_FILE = "tasks.dat";
     private static final String PRIORITIES_FILE = "priorities.dat";
     private static final String TODOS_FILE = "todos.dat";
+    private static final String DATA_DIR = "data";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int MAX_RESIDENT_MONTHS = 12;
+    // journal records written before changed months are snapshotted in the background
+    private static final int COMPACT_THRESHOLD = 500;
+    private static final String JOURNAL_KEY = "journal";
+    private static final String SERIES_FILE = "series.dat";
+    private static final String SERIES_KEY = "series";
+    // how far ahead getUpcomingTasks looks
+    private static final int UPCOMING_DAYS = 366;
+
+    // directory holding the journal, data/ and any pre-segment files
+    private final File home;
+    private final File dataDir;
+    private final Journal journal;
+    private final PersistenceWriter writer = new PersistenceWriter();
+    private final ExecutorService loader;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+    // resident months; the one with the oldest lastUsed stamp is evicted first
+    private final Map<YearMonth, MonthSegment> resident = new HashMap<>();
+    private final AtomicLong useClock = new AtomicLong();
+    // evicted months whose snapshot has not been written yet
+    private final Map<YearMonth, MonthSegment> evicting = new HashMap<>();
+    // months whose snapshot the writer is saving right now; until the file is in place they
+    // count as unsaved, otherwise an eviction in between would reload the old file
+    private final Set<YearMonth> writing = new HashSet<>();
+    // months that have a segment file on disk
+    private final NavigableSet<YearMonth> storedMonths = new TreeSet<>();
+    // months whose segment file could not be read: shown empty, and their file is not written over
+    // until it has been read, since that would replace the month with whatever was added since
+    private final Set<YearMonth> unreadable = new HashSet<>();
+    // journal records of months not loaded since startup, applied when the month is loaded
+    private final Map<YearMonth, List<Replayed>> backlog = new HashMap<>();
+    // records not yet handed to the journal file, and records since the last snapshot
+    private final List<Journal.Entry> journalBuffer = new ArrayList<>();
+    private int recordsSinceCompaction;
+    // set when a journal log could not be replayed: its records are in no snapshot, so no log is
+    // deleted this session
+    private boolean keepLogs;
+    private final SearchIndex searchIndex = new SearchIndex();
+    // months whose text the background indexer has not read yet; changes to them are picked up
+    // when the indexer gets there instead of being applied to the index twice
+    private final Set<YearMonth> unindexedMonths = new HashSet<>();
+    // counts segment files written, so the indexer can tell whether a file it read is still current
+    private long segmentWrites;
+    private final ExecutorService indexer;
+    // the next journal record gets sequence number (generation, position)
+    private long generation;
+    private int position;
+    private final List<Consumer<ScheduleChange>> listeners = new CopyOnWriteArrayList<>();
+    private final IdAllocator ids;
+    // tasks, priorities and to-dos of the resident months by id; callers' references are resolved
+    // through it, so an item handed out before its month was evicted and reloaded still works
+    private final Map<Long, Identified> byId = new HashMap<>();
+    // recurring tasks by id; kept whole in memory and saved to data/series.dat after every change
+    private final Map<Long, RecurringTask> series = new LinkedHashMap<>();
+    // series.dat exists but could not be read; it is not written over
+    private boolean seriesUnread;
+
+    private record Replayed(long seq, Journal.Entry entry) {}
+
+    private interface DayVisitor {
+        // Returns false to stop the walk.
+        boolean visit(LocalDate date, List<Task> tasks);
+    }
+
+    // One day as handed out by forEachDay; the lists are the same immutable snapshots the getters return.
+    record DayContents(LocalDate date, List<Task> tasks, List<PriorityItem> priorities, List<TodoItem> todos) {}
+
+    interface DayConsumer {
+        void accept(DayContents day) throws IOException;
+    }
 
     public ScheduleManager() {
-        tasks = new ArrayList<>();
-        priorities = new HashMap<>();
-        todos = new HashMap<>();
+        this(true);
+    }
+
+    public ScheduleManager(boolean journaled) {
+        this(new File("."), journaled);
+    }
+
+    // Keeps the schedule under home instead of the working directory. journaled = false rewrites a
+    // month's segment after every change instead of journaling it.
+    public ScheduleManager(File home, boolean journaled) {
+        this.home = home;
+        dataDir = new File(home, DATA_DIR);
+        journal = journaled ? new Journal(home) : null;
+        dataDir.mkdirs();
+        ids = new IdAllocator(new File(dataDir, "ids").toPath());
+        loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "month-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        indexer = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "search-indexer");
+            t.setDaemon(true);
+            return t;
+        });
+        long start = System.nanoTime();
+        PlannerEvents.Startup event = PlannerEvents.begin(PlannerEvents.Startup::new);
         loadData();
+        Metrics.STARTUP.stop(start);
+        if (event != null && event.shouldCommit()) {
+            event.months = storedMonths.size();
+            event.records = recordsSinceCompaction;
+            event.commit();
+        }
+        indexer.execute(this::buildSearchIndex);
     }
 
     public void addTask(Task task) {
-        tasks.add(task);
-        saveTasks();
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(task.getDate()));
+            if (task.getId() == 0) {
+                task.setId(ids.next());
+            }
+            int index = segment.addTask(task);
+            byId.put(task.getId(), task);
+            index(task, true);
+            persist(segment, Journal.Entry.addTask(task));
+            fire(ScheduleChange.Type.ADDED, ScheduleChange.Section.TASK, task.getDate(), listingIndex(segment, task, index), task);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Adds many tasks under one hold of the lock with one write at the end: a single journal append,
+    // or one rewrite of each month touched. A task whose date already lists one with the same slot
+    // and name (ignoring case), including an occurrence or an earlier task of the batch, is skipped.
+    // Returns the tasks added.
+    public List<Task> addTasks(Collection<Task> tasks) {
+        // in date order, so a batch spread over many months loads each of them once
+        List<Task> sorted = new ArrayList<>(tasks);
+        sorted.sort(Comparator.comparing(Task::getDate));
+        List<Task> added = new ArrayList<>();
+        writeLock.lock();
+        try {
+            for (Task task : sorted) {
+                MonthSegment segment = segment(YearMonth.from(task.getDate()));
+                if (isListed(segment, task)) {
+                    continue;
+                }
+                if (task.getId() == 0) {
+                    task.setId(ids.next());
+                }
+                int index = segment.addTask(task);
+                byId.put(task.getId(), task);
+                index(task, true);
+                stage(segment, Journal.Entry.addTask(task));
+                fire(ScheduleChange.Type.ADDED, ScheduleChange.Section.TASK, task.getDate(), listingIndex(segment, task, index), task);
+                added.add(task);
+            }
+            commitStaged();
+            return added;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
+    // For an occurrence of a recurring task this skips that one date; the series stays.
     public void deleteTask(Task task) {
-        tasks.remove(task);
-        saveTasks();
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(task.getDate()));
+            if (task.isOccurrence()) {
+                RecurringTask recurring = series.get(task.getSeriesId());
+                if (recurring != null && recurring.occursOn(task.getDate())) {
+                    int index = listingIndex(segment, task, -1);
+                    recurring.skip(task.getDate());
+                    segment.clearListing(task.getDate());
+                    saveSeries();
+                    fire(ScheduleChange.Type.REMOVED, ScheduleChange.Section.TASK, task.getDate(), index, task);
+                    removePrioritiesOf(segment, task);
+                }
+                return;
+            }
+            Task current = current(task);
+            int listed = listingIndex(segment, current, segment.indexOfTask(current));
+            int index = segment.removeTask(current);
+            if (index >= 0) {
+                byId.remove(current.getId());
+                index(current, false);
+                persist(segment, Journal.Entry.at(Journal.Op.DELETE_TASK, current.getDate().toEpochDay(), index, false));
+                fire(ScheduleChange.Type.REMOVED, ScheduleChange.Section.TASK, current.getDate(), listed, current);
+                removePrioritiesOf(segment, current);
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    public List<Task> getTasksForDate(LocalDate date) {
-        List<Task> dateTasks = new ArrayList<>();
-        for (Task task : tasks) {
-            if (task.getDate().equals(date)) {
-                dateTasks.add(task);
+    // Changes the stored task with the given task's id; the caller's object is left alone unless it
+    // is the stored one.
+    public void setTaskCompleted(Task task, boolean completed) {
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(task.getDate()));
+            if (task.isOccurrence()) {
+                RecurringTask recurring = series.get(task.getSeriesId());
+                if (recurring != null && recurring.occursOn(task.getDate())) {
+                    recurring.setCompleted(task.getDate(), completed);
+                    segment.clearListing(task.getDate());
+                    saveSeries();
+                    int index = listingIndex(segment, task, -1);
+                    fire(ScheduleChange.Type.UPDATED, ScheduleChange.Section.TASK, task.getDate(), index,
+                            listing(segment, task.getDate()).get(index));
+                }
+                return;
+            }
+            Task current = current(task);
+            int index = segment.indexOfTask(current);
+            if (index >= 0) {
+                current.setCompleted(completed);
+                persist(segment, Journal.Entry.at(Journal.Op.COMPLETE_TASK, current.getDate().toEpochDay(), index, completed));
+                fire(ScheduleChange.Type.UPDATED, ScheduleChange.Section.TASK, current.getDate(), listingIndex(segment, current, index), current);
             }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // One-off tasks and occurrences of recurring tasks, in slot order.
+    public List<Task> getTasksForDate(LocalDate date) {
+        long start = System.nanoTime();
+        List<Task> tasks = read(YearMonth.from(date), segment -> listing(segment, date));
+        Metrics.DAY_QUERY.stop(start);
+        return tasks;
+    }
+
+    // Tasks on the same day whose time range intersects the given task's range.
+    public List<Task> findConflicts(Task task) {
+        if (!task.hasTimeRange()) {
+            return List.of();
         }
-        dateTasks.sort((t1, t2) -> t1.getTimeSlot().compareTo(t2.getTimeSlot()));
-        return dateTasks;
+        return getTasksBetweenMinutes(task.getDate(), task.getStartMinute(), task.getEndMinute());
+    }
+
+    // What is scheduled at the given minute of the day.
+    public List<Task> getTasksAt(LocalDate date, int minute) {
+        return getTasksBetweenMinutes(date, minute, minute + 1);
+    }
+
+    public List<Task> getTasksBetweenMinutes(LocalDate date, int startMinute, int endMinute) {
+        return read(YearMonth.from(date), segment -> {
+            DaySchedule day = segment.tasksOn(date);
+            List<Task> tasks = day == null ? List.of() : day.overlapping(startMinute, endMinute);
+            return series.isEmpty() ? tasks : withOccurrences(tasks, date, startMinute, endMinute);
+        });
     }
 
     public boolean hasTasksForDate(LocalDate date) {
-        return tasks.stream().anyMatch(task -> task.getDate().equals(date));
+        return (monthOccupancy(YearMonth.from(date)) & MonthSegment.dayBit(date)) != 0;
+    }
+
+    // Every task from from to to inclusive, by date and then slot, with recurring occurrences.
+    public List<Task> getTasksBetween(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        List<Task> tasks = new ArrayList<>();
+        readDays(from, to, (date, day) -> {
+            tasks.addAll(day);
+            return true;
+        });
+        Metrics.RANGE_QUERY.stop(start);
+        return tasks;
+    }
+
+    // counts[i] is the number of tasks on from.plusDays(i).
+    public int[] countTasksPerDay(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        int[] counts = new int[(int) Math.max(0, to.toEpochDay() - from.toEpochDay() + 1)];
+        readDays(from, to, (date, day) -> {
+            counts[(int) (date.toEpochDay() - from.toEpochDay())] = day.size();
+            return true;
+        });
+        Metrics.RANGE_QUERY.stop(start);
+        return counts;
+    }
+
+    // The first limit tasks starting at or after minute on date, in date and slot order, looking
+    // up to a year ahead.
+    public List<Task> getUpcomingTasks(LocalDate date, int minute, int limit) {
+        List<Task> upcoming = new ArrayList<>();
+        if (limit <= 0) {
+            return upcoming;
+        }
+        long start = System.nanoTime();
+        readDays(date, date.plusDays(UPCOMING_DAYS - 1), (day, tasks) -> {
+            for (Task task : tasks) {
+                if (!day.equals(date) || task.getStartMinute() >= minute) {
+                    upcoming.add(task);
+                    if (upcoming.size() == limit) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        });
+        Metrics.RANGE_QUERY.stop(start);
+        return upcoming;
+    }
+
+    // Hands every day from from to to that has tasks, priorities or to-dos to consumer, in date order,
+    // holding one month at a time: each month is copied under the read lock and handed over after it
+    // is released, so a slow consumer blocks no one. Months that are not in memory are read from
+    // their files without being loaded, leaving the months the UI uses in place. Each month is
+    // consistent on its own; changes made during the walk show up in months not reached yet.
+    public void forEachDay(LocalDate from, LocalDate to, DayConsumer consumer) throws IOException {
+        if (to.isBefore(from)) {
+            return;
+        }
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to);
+        NavigableSet<YearMonth> months;
+        readLock.lock();
+        try {
+            months = monthsWithData(from, to);
+            if (!series.isEmpty()) {
+                Stream.iterate(first, m -> !m.isAfter(last), m -> m.plusMonths(1)).forEach(months::add);
+            }
+        } finally {
+            readLock.unlock();
+        }
+        for (YearMonth month : months) {
+            for (DayContents day : monthContents(month, from, to)) {
+                consumer.accept(day);
+            }
+        }
+    }
+
+    private List<DayContents> monthContents(YearMonth month, LocalDate from, LocalDate to) throws IOException {
+        readLock.lock();
+        try {
+            MonthSegment segment = resident.containsKey(month) ? resident.get(month) : evicting.get(month);
+            if (segment == null) {
+                // a month whose file is being written is still resident or evicting, so this file is complete
+                segment = storedMonths.contains(month) ? ScheduleCodec.readSegment(segmentFile(month), month) : new MonthSegment(month);
+                // the backlog stays for when the month is loaded for real
+                for (Replayed r : backlog.getOrDefault(month, List.of())) {
+                    if (r.seq() > segment.getLastSeq()) {
+                        apply(segment, r.entry());
+                    }
+                }
+                if (hasMissingIds(segment)) {
+                    segment = null;
+                }
+            }
+            if (segment != null) {
+                return dayContents(segment, from, to);
+            }
+        } finally {
+            readLock.unlock();
+        }
+        // items saved before ids existed get theirs when the month is loaded
+        writeLock.lock();
+        try {
+            return dayContents(segment(month), from, to);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<DayContents> dayContents(MonthSegment segment, LocalDate from, LocalDate to) {
+        List<DayContents> days = new ArrayList<>();
+        YearMonth month = segment.getMonth();
+        for (int day = 1; day <= month.lengthOfMonth(); day++) {
+            LocalDate date = month.atDay(day);
+            if (date.isBefore(from) || date.isAfter(to)) {
+                continue;
+            }
+            List<Task> tasks = listing(segment, date);
+            List<PriorityItem> priorities = segment.prioritiesOn(date);
+            List<TodoItem> todos = segment.todosOn(date);
+            if (!tasks.isEmpty() || !priorities.isEmpty() || !todos.isEmpty()) {
+                days.add(new DayContents(date, tasks, priorities, todos));
+            }
+        }
+        return days;
+    }
+
+    private static boolean hasMissingIds(MonthSegment segment) {
+        boolean[] missing = { false };
+        segment.forEachItem(item -> missing[0] |= item.getId() == 0);
+        return missing[0];
+    }
+
+    // Bit (day - 1) is set for every day of the month that has tasks.
+    public int monthOccupancy(YearMonth month) {
+        long start = System.nanoTime();
+        int occupancy = read(month, segment -> segment.getOccupancy() | seriesOccupancy(month));
+        Metrics.MONTH_QUERY.stop(start);
+        return occupancy;
     }
 
     public void addPriority(LocalDate date, PriorityItem priority) {
-        String key = date.toString();
-        List<PriorityItem> list = priorities.getOrDefault(key, new ArrayList<>());
-        if (list.size() < 3) {
-            list.add(priority);
-            priorities.put(key, list);
-            savePriorities();
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(date));
+            if (segment.prioritiesOn(date).size() < 3) {
+                if (priority.getId() == 0) {
+                    priority.setId(ids.next());
+                }
+                int index = segment.addPriority(date, priority);
+                byId.put(priority.getId(), priority);
+                persist(segment, Journal.Entry.addPriority(date.toEpochDay(), priority));
+                fire(ScheduleChange.Type.ADDED, ScheduleChange.Section.PRIORITY, date, index, priority);
+            }
+        } finally {
+            writeLock.unlock();
         }
     }
 
     public void deletePriority(LocalDate date, PriorityItem priority) {
-        String key = date.toString();
-        List<PriorityItem> list = priorities.get(key);
-        if (list != null) {
-            list.remove(priority);
-            priorities.put(key, list);
-            savePriorities();
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(date));
+            priority = current(priority);
+            int index = MonthSegment.indexOfIdentity(segment.prioritiesOn(date), priority);
+            if (index >= 0) {
+                segment.removePriority(date, index);
+                byId.remove(priority.getId());
+                persist(segment, Journal.Entry.at(Journal.Op.DELETE_PRIORITY, date.toEpochDay(), index, false));
+                fire(ScheduleChange.Type.REMOVED, ScheduleChange.Section.PRIORITY, date, index, priority);
+            }
+        } finally {
+            writeLock.unlock();
         }
     }
 
     public List<PriorityItem> getPriorities(LocalDate date) {
-        return priorities.getOrDefault(date.toString(), new ArrayList<>());
+        return read(YearMonth.from(date), segment -> segment.prioritiesOn(date));
     }
 
     public void addTodo(LocalDate date, TodoItem todo) {
-        String key = date.toString();
-        List<TodoItem> list = todos.getOrDefault(key, new ArrayList<>());
-        list.add(todo);
-        todos.put(key, list);
-        saveTodos();
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(date));
+            if (todo.getId() == 0) {
+                todo.setId(ids.next());
+            }
+            int index = segment.addTodo(date, todo);
+            byId.put(todo.getId(), todo);
+            index(date, todo.getText(), true);
+            persist(segment, Journal.Entry.addTodo(date.toEpochDay(), todo));
+            fire(ScheduleChange.Type.ADDED, ScheduleChange.Section.TODO, date, index, todo);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
     public void deleteTodo(LocalDate date, TodoItem todo) {
-        String key = date.toString();
-        List<TodoItem> list = todos.get(key);
-        if (list != null) {
-            list.remove(todo);
-            todos.put(key, list);
-            saveTodos();
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(date));
+            todo = current(todo);
+            int index = MonthSegment.indexOfIdentity(segment.todosOn(date), todo);
+            if (index >= 0) {
+                segment.removeTodo(date, index);
+                byId.remove(todo.getId());
+                index(date, todo.getText(), false);
+                persist(segment, Journal.Entry.at(Journal.Op.DELETE_TODO, date.toEpochDay(), index, false));
+                fire(ScheduleChange.Type.REMOVED, ScheduleChange.Section.TODO, date, index, todo);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void setTodoCompleted(LocalDate date, TodoItem todo, boolean completed) {
+        writeLock.lock();
+        try {
+            MonthSegment segment = segment(YearMonth.from(date));
+            todo = current(todo);
+            int index = MonthSegment.indexOfIdentity(segment.todosOn(date), todo);
+            if (index >= 0) {
+                todo.setCompleted(completed);
+                persist(segment, Journal.Entry.at(Journal.Op.COMPLETE_TODO, date.toEpochDay(), index, completed));
+                fire(ScheduleChange.Type.UPDATED, ScheduleChange.Section.TODO, date, index, todo);
+            }
+        } finally {
+            writeLock.unlock();
         }
     }
 
     public List<TodoItem> getTodos(LocalDate date) {
-        return todos.getOrDefault(date.toString(), new ArrayList<>());
+        return read(YearMonth.from(date), segment -> segment.todosOn(date));
     }
 
-    public void saveTasks() {
-        saveToFile(TASKS_FILE, tasks);
+    // The task with this id, or null when it is gone or its month is not in memory.
+    public Task getTask(long id) {
+        readLock.lock();
+        try {
+            return byId.get(id) instanceof Task task ? task : null;
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    private void savePriorities() {
-        saveToFile(PRIORITIES_FILE, priorities);
+    // Stores the recurring task once; its occurrences show up on every matching date.
+    public void addRecurringTask(RecurringTask task) {
+        writeLock.lock();
+        try {
+            if (task.getId() == 0) {
+                task.setId(ids.next());
+            }
+            series.put(task.getId(), task);
+            index(task, true);
+            seriesChanged();
+            fire(ScheduleChange.Type.ADDED, ScheduleChange.Section.SERIES, task.getRecurrence().start(), 0, task);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    public void saveTodos() {
-        saveToFile(TODOS_FILE, todos);
+    public void deleteRecurringTask(RecurringTask task) {
+        writeLock.lock();
+        try {
+            RecurringTask removed = series.remove(task.getId());
+            if (removed != null) {
+                index(removed, false);
+                seriesChanged();
+                fire(ScheduleChange.Type.REMOVED, ScheduleChange.Section.SERIES, task.getRecurrence().start(), 0, task);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public List<RecurringTask> getRecurringTasks() {
+        readLock.lock();
+        try {
+            return List.copyOf(series.values());
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // The recurring task with this id, or null when it was deleted.
+    public RecurringTask getRecurringTask(long id) {
+        readLock.lock();
+        try {
+            return series.get(id);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Days whose tasks or to-dos contain every word of the query (as a word prefix), oldest first.
+    // A recurring task matches on each of its dates up to a year past today (or past its start).
+    // Months still being indexed in the background are missing until isSearchReady().
+    public NavigableSet<LocalDate> search(String query) {
+        long start = System.nanoTime();
+        NavigableSet<LocalDate> days;
+        readLock.lock();
+        try {
+            days = searchIndex.search(query, this::searchableDays);
+        } finally {
+            readLock.unlock();
+        }
+        Metrics.SEARCH_QUERY.stop(start);
+        return days;
+    }
+
+    public boolean isSearchReady() {
+        readLock.lock();
+        try {
+            return unindexedMonths.isEmpty();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // Loads the months either side of the displayed one in the background so paging is instant.
+    public void prefetchAround(YearMonth month) {
+        loader.execute(() -> {
+            prefetch(month.minusMonths(1));
+            prefetch(month.plusMonths(1));
+        });
+    }
+
+    // Reads the given months concurrently and makes them resident, so the first screen after
+    // startup does not wait for one segment file after another.
+    public void preload(List<YearMonth> months) {
+        months.parallelStream().forEach(this::prefetch);
+    }
+
+    // Persists anything still waiting in the writer; call before the application exits.
+    public void flush() {
+        writer.flush();
+    }
+
+    public void close() {
+        loader.shutdownNow();
+        indexer.shutdownNow();
+        writer.shutdown();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                writer.report(e);
+            }
+        }
+    }
+
+    // Receives write failures on the writer thread and read failures on the thread that hit them.
+    // Failures from opening the schedule are delivered when the handler is set.
+    public void setErrorHandler(Consumer<IOException> errorHandler) {
+        writer.setErrorHandler(errorHandler);
+    }
+
+    void reportError(IOException e) {
+        writer.report(e);
+    }
+
+    // Listeners are called on the mutating thread, after the change is applied, with the manager locked.
+    public void addListener(Consumer<ScheduleChange> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<ScheduleChange> listener) {
+        listeners.remove(listener);
+    }
+
+    // The manager's own copy of an item the caller holds, found by id.
+    @SuppressWarnings("unchecked")
+    private <T extends Identified> T current(T item) {
+        Identified found = byId.get(item.getId());
+        return found != null && found.getClass() == item.getClass() ? (T) found : item;
+    }
+
+    // The day's tasks as readers see them. Without recurring tasks that is the day's own snapshot;
+    // otherwise the merge with the day's occurrences is cached in the segment until either changes.
+    private List<Task> listing(MonthSegment segment, LocalDate date) {
+        DaySchedule day = segment.tasksOn(date);
+        List<Task> tasks = day == null ? List.of() : day.tasks();
+        if (series.isEmpty()) {
+            return tasks;
+        }
+        List<Task> listing = segment.listing(date);
+        if (listing == null) {
+            listing = withOccurrences(tasks, date, Integer.MIN_VALUE, Integer.MAX_VALUE);
+            segment.cacheListing(date, listing);
+        }
+        return listing;
+    }
+
+    // Merges the occurrences on date that intersect [startMinute, endMinute) into tasks, keeping
+    // slot order; one-off tasks come first among equal slots.
+    private List<Task> withOccurrences(List<Task> tasks, LocalDate date, int startMinute, int endMinute) {
+        List<Task> merged = null;
+        long epochDay = date.toEpochDay();
+        for (RecurringTask recurring : series.values()) {
+            if (recurring.occursOn(epochDay) && recurring.getStartMinute() < endMinute && startMinute < recurring.getEndMinute()) {
+                if (merged == null) {
+                    merged = new ArrayList<>(tasks);
+                }
+                merged.add(recurring.occurrence(date));
+            }
+        }
+        if (merged == null) {
+            return tasks;
+        }
+        merged.sort(Comparator.comparingInt(Task::getStartMinute).thenComparingInt(Task::getEndMinute));
+        return List.copyOf(merged);
+    }
+
+    // Position of task in the day's listing; dayIndex is its position among the one-off tasks,
+    // which is the same thing while there are no recurring tasks.
+    private int listingIndex(MonthSegment segment, Task task, int dayIndex) {
+        if (series.isEmpty()) {
+            return dayIndex;
+        }
+        List<Task> listing = listing(segment, task.getDate());
+        for (int i = 0; i < listing.size(); i++) {
+            Task listed = listing.get(i);
+            if (listed == task || (task.isOccurrence() && listed.getSeriesId() == task.getSeriesId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Calls visitor for each day from from to to that has tasks, in order, until it returns false.
+    // The range is read atomically: under the read lock when every month in it that holds data is
+    // in memory, otherwise under the write lock while the missing months are loaded.
+    private void readDays(LocalDate from, LocalDate to, DayVisitor visitor) {
+        if (to.isBefore(from)) {
+            return;
+        }
+        readLock.lock();
+        try {
+            if (monthsWithData(from, to).stream().allMatch(m -> resident.containsKey(m) || evicting.containsKey(m))) {
+                visitDays(from, to, visitor, m -> resident.containsKey(m) ? resident.get(m) : evicting.get(m));
+                return;
+            }
+        } finally {
+            readLock.unlock();
+        }
+        writeLock.lock();
+        try {
+            NavigableSet<YearMonth> withData = monthsWithData(from, to);
+            visitDays(from, to, visitor, m -> withData.contains(m) ? segment(m) : null);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Without recurring tasks only months holding data are visited, found through the ordered
+    // month set; each month's occupancy bits then skip its empty days.
+    private void visitDays(LocalDate from, LocalDate to, DayVisitor visitor, Function<YearMonth, MonthSegment> segments) {
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to);
+        Iterable<YearMonth> months = series.isEmpty()
+                ? monthsWithData(from, to)
+                : Stream.iterate(first, m -> !m.isAfter(last), m -> m.plusMonths(1))::iterator;
+        for (YearMonth month : months) {
+            MonthSegment segment = segments.apply(month);
+            int days = (segment == null ? 0 : segment.getOccupancy()) | seriesOccupancy(month);
+            int firstDay = month.equals(first) ? from.getDayOfMonth() : 1;
+            int lastDay = month.equals(last) ? to.getDayOfMonth() : month.lengthOfMonth();
+            for (int day = firstDay; day <= lastDay; day++) {
+                if ((days & (1 << (day - 1))) == 0) {
+                    continue;
+                }
+                LocalDate date = month.atDay(day);
+                List<Task> tasks = segment != null ? listing(segment, date)
+                        : withOccurrences(List.of(), date, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                if (!tasks.isEmpty() && !visitor.visit(date, tasks)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Months in the range that have a segment file, are in memory or have unapplied journal records.
+    private NavigableSet<YearMonth> monthsWithData(LocalDate from, LocalDate to) {
+        YearMonth first = YearMonth.from(from);
+        YearMonth last = YearMonth.from(to);
+        NavigableSet<YearMonth> months = new TreeSet<>(storedMonths.subSet(first, true, last, true));
+        for (Set<YearMonth> keys : List.of(resident.keySet(), evicting.keySet(), backlog.keySet())) {
+            for (YearMonth month : keys) {
+                if (!month.isBefore(first) && !month.isAfter(last)) {
+                    months.add(month);
+                }
+            }
+        }
+        return months;
+    }
+
+    // Bit (day - 1) for every day of the month with an occurrence.
+    private int seriesOccupancy(YearMonth month) {
+        int bits = 0;
+        if (series.isEmpty()) {
+            return bits;
+        }
+        long first = month.atDay(1).toEpochDay();
+        for (RecurringTask recurring : series.values()) {
+            for (int day = 0; day < month.lengthOfMonth(); day++) {
+                if (recurring.occursOn(first + day)) {
+                    bits |= 1 << day;
+                }
+            }
+        }
+        return bits;
+    }
+
+    // Cached listings of every month in memory mix in the old set of recurring tasks.
+    private void seriesChanged() {
+        resident.values().forEach(MonthSegment::clearListings);
+        evicting.values().forEach(MonthSegment::clearListings);
+        saveSeries();
+    }
+
+    private void saveSeries() {
+        if (seriesUnread) {
+            writer.report(new IOException("Recurring tasks are not saved: " + seriesFile() + " could not be read and is left as it is"));
+            return;
+        }
+        writer.schedule(SERIES_KEY, this::writeSeries);
+    }
+
+    // Runs on the writer thread.
+    private void writeSeries() throws IOException {
+        ScheduleCodec.Encoder encoded;
+        readLock.lock();
+        try {
+            encoded = series.isEmpty() ? null : ScheduleCodec.encodeSeries(new ArrayList<>(series.values()));
+        } finally {
+            readLock.unlock();
+        }
+        if (encoded != null) {
+            encoded.writeTo(seriesFile());
+        } else {
+            Files.deleteIfExists(seriesFile());
+        }
+    }
+
+    // A task's priorities go with it, so no priority points at a deleted task.
+    private void removePrioritiesOf(MonthSegment segment, Task task) {
+        List<PriorityItem> list = segment.prioritiesOn(task.getDate());
+        for (int i = list.size() - 1; i >= 0; i--) {
+            PriorityItem priority = list.get(i);
+            if (priority.getTaskId() == task.getId()) {
+                segment.removePriority(task.getDate(), i);
+                byId.remove(priority.getId());
+                persist(segment, Journal.Entry.at(Journal.Op.DELETE_PRIORITY, task.getDate().toEpochDay(), i, false));
+                fire(ScheduleChange.Type.REMOVED, ScheduleChange.Section.PRIORITY, task.getDate(), i, priority);
+            }
+        }
+    }
+
+    private void fire(ScheduleChange.Type type, ScheduleChange.Section section, LocalDate date, int index, Object item) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        ScheduleChange change = new ScheduleChange(type, section, date, index, item);
+        for (Consumer<ScheduleChange> listener : listeners) {
+            listener.accept(change);
+        }
+    }
+
+    private void index(Task task, boolean add) {
+        index(task.getDate(), task.getTaskName(), add);
+        index(task.getDate(), task.getDescription(), add);
+    }
+
+    private void index(LocalDate date, String text, boolean add) {
+        if (unindexedMonths.contains(YearMonth.from(date))) {
+            return;
+        }
+        if (add) {
+            searchIndex.add(date, text);
+        } else {
+            searchIndex.remove(date, text);
+        }
+    }
+
+    private void index(RecurringTask task, boolean add) {
+        for (String text : new String[] { task.getTaskName(), task.getDescription() }) {
+            if (add) {
+                searchIndex.addSeries(task.getId(), text);
+            } else {
+                searchIndex.removeSeries(task.getId(), text);
+            }
+        }
+    }
+
+    // Epoch days the recurring task occurs on, as far as search lists them; a series without an end
+    // would otherwise match forever.
+    private Set<Long> searchableDays(long seriesId) {
+        Set<Long> days = new HashSet<>();
+        RecurringTask recurring = series.get(seriesId);
+        if (recurring == null) {
+            return days;
+        }
+        Recurrence rule = recurring.getRecurrence();
+        long first = rule.start().toEpochDay();
+        long last = Math.max(LocalDate.now().toEpochDay(), first) + UPCOMING_DAYS - 1;
+        if (rule.until() != null) {
+            last = Math.min(last, rule.until().toEpochDay());
+        }
+        for (long day = first; day <= last; day++) {
+            if (recurring.occursOn(day)) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    // Reads the text of every stored month once. Files are read and decoded outside the lock; the
+    // write lock is held only while one month's words go into the index.
+    private void buildSearchIndex() {
+        List<YearMonth> months;
+        readLock.lock();
+        try {
+            months = new ArrayList<>(unindexedMonths);
+        } finally {
+            readLock.unlock();
+        }
+        for (YearMonth month : months) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            int attempts = 0;
+            while (!indexMonth(month, ++attempts <= 3)) {
+                // its file was rewritten meanwhile; after a few tries the month is read under the lock
+            }
+        }
+    }
+
+    // Adds one month's words to the index. Returns false when a segment was written while the
+    // month's file was being read, since what was read may be out of date.
+    private boolean indexMonth(YearMonth month, boolean outsideLock) {
+        long writes;
+        boolean fromFile;
+        readLock.lock();
+        try {
+            writes = segmentWrites;
+            fromFile = outsideLock && storedMonths.contains(month) && !resident.containsKey(month)
+                    && !evicting.containsKey(month);
+        } finally {
+            readLock.unlock();
+        }
+        MonthSegment read = null;
+        IOException failure = null;
+        if (fromFile) {
+            try {
+                read = ScheduleCodec.readSegment(segmentFile(month), month);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        writeLock.lock();
+        try {
+            MonthSegment segment = resident.containsKey(month) ? resident.get(month) : evicting.get(month);
+            if (segment == null) {
+                if (!fromFile) {
+                    segment = readDetached(month);
+                } else if (segmentWrites != writes) {
+                    return false;
+                } else {
+                    if (failure != null) {
+                        readFailed(month, failure);
+                    }
+                    segment = detached(month, read);
+                }
+            }
+            unindexedMonths.remove(month);
+            for (Task task : segment.allTasks()) {
+                index(task, true);
+            }
+            segment.allTodos().forEach((day, list) -> list.forEach(todo -> index(LocalDate.ofEpochDay(day), todo.getText(), true)));
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // A month as it would look if loaded, without making it resident or consuming its backlog.
+    private MonthSegment readDetached(YearMonth month) {
+        MonthSegment segment = null;
+        try {
+            segment = storedMonths.contains(month) ? ScheduleCodec.readSegment(segmentFile(month), month) : null;
+        } catch (IOException e) {
+            readFailed(month, e);
+        }
+        return detached(month, segment);
+    }
+
+    // The month read from its file, or an empty one, with its pending journal records applied.
+    private MonthSegment detached(YearMonth month, MonthSegment segment) {
+        if (segment == null) {
+            segment = new MonthSegment(month);
+        }
+        List<Replayed> records = backlog.get(month);
+        if (records != null) {
+            for (Replayed r : records) {
+                if (r.seq() > segment.getLastSeq()) {
+                    apply(segment, r.entry());
+                }
+            }
+        }
+        return segment;
+    }
+
+    // Runs reader on the month under the read lock when it is in memory; otherwise loads it under
+    // the write lock first. Readers of resident months never wait for each other.
+    private <T> T read(YearMonth month, Function<MonthSegment, T> reader) {
+        readLock.lock();
+        try {
+            MonthSegment segment = resident.get(month);
+            if (segment != null) {
+                segment.touch(useClock.incrementAndGet());
+                return reader.apply(segment);
+            }
+        } finally {
+            readLock.unlock();
+        }
+        writeLock.lock();
+        try {
+            return reader.apply(segment(month));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Returns the month's segment, loading it if needed, and marks it most recently used.
+    // Requires the write lock.
+    private MonthSegment segment(YearMonth month) {
+        MonthSegment segment = resident.get(month);
+        if (segment != null) {
+            segment.touch(useClock.incrementAndGet());
+            return segment;
+        }
+        segment = evicting.remove(month);
+        if (segment == null) {
+            try {
+                segment = storedMonths.contains(month) ? ScheduleCodec.readSegment(segmentFile(month), month) : null;
+                unreadable.remove(month);
+            } catch (IOException e) {
+                readFailed(month, e);
+            }
+            if (segment == null) {
+                segment = new MonthSegment(month);
+            }
+            if (!unreadable.contains(month)) {
+                // an unreadable month's records stay for when its file can be read
+                applyBacklog(segment);
+            }
+        }
+        install(segment);
+        return segment;
+    }
+
+    // Reports a month that could not be read, once until it is read successfully.
+    private void readFailed(YearMonth month, IOException e) {
+        if (unreadable.add(month)) {
+            writer.report(new IOException("Could not read " + segmentFile(month) + ": " + e.getMessage()
+                    + ". " + month + " is shown empty and its file is left as it is.", e));
+        }
+    }
+
+    private IOException notSaved(YearMonth month) {
+        return new IOException("Changes to " + month + " are not saved: " + segmentFile(month)
+                + " could not be read and is left as it is");
+    }
+
+    // Makes a loaded month resident. Items saved before ids existed get one, and the month is
+    // written out right away so those ids stay the same after a restart.
+    private void install(MonthSegment segment) {
+        YearMonth month = segment.getMonth();
+        if (segment.assignMissingIds(ids)) {
+            segment.markChanged(segment.getLastSeq());
+            writer.submit(() -> writeSegment(month));
+        }
+        segment.forEachItem(item -> {
+            byId.put(item.getId(), item);
+            ids.observe(item.getId());
+        });
+        segment.touch(useClock.incrementAndGet());
+        resident.put(month, segment);
+        evictExcess();
+    }
+
+    private void prefetch(YearMonth month) {
+        readLock.lock();
+        try {
+            if (resident.containsKey(month) || evicting.containsKey(month) || !storedMonths.contains(month)) {
+                return;
+            }
+        } finally {
+            readLock.unlock();
+        }
+        MonthSegment loaded;
+        try {
+            loaded = ScheduleCodec.readSegment(segmentFile(month), month);
+        } catch (IOException e) {
+            // segment() tries again and reports it if the month is actually opened
+            return;
+        }
+        writeLock.lock();
+        try {
+            if (loaded != null && !resident.containsKey(month) && !evicting.containsKey(month)) {
+                unreadable.remove(month);
+                applyBacklog(loaded);
+                install(loaded);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void evictExcess() {
+        while (resident.size() > MAX_RESIDENT_MONTHS) {
+            MonthSegment segment = null;
+            for (MonthSegment candidate : resident.values()) {
+                if (segment == null || candidate.getLastUsed() < segment.getLastUsed()) {
+                    segment = candidate;
+                }
+            }
+            resident.remove(segment.getMonth());
+            segment.forEachItem(item -> byId.remove(item.getId()));
+            YearMonth month = segment.getMonth();
+            if (segment.isDirty()) {
+                evicting.put(month, segment);
+                writer.submit(() -> writeSegment(month));
+            } else if (writing.contains(month)) {
+                // the writer drops it from evicting once the file is in place
+                evicting.put(month, segment);
+            }
+        }
+    }
+
+    private void applyBacklog(MonthSegment segment) {
+        List<Replayed> records = backlog.remove(segment.getMonth());
+        if (records != null) {
+            for (Replayed r : records) {
+                if (r.seq() > segment.getLastSeq()) {
+                    apply(segment, r.entry());
+                    segment.markChanged(r.seq());
+                }
+            }
+        }
+    }
+
+    // Called with the write lock held by every mutator.
+    private void persist(MonthSegment segment, Journal.Entry entry) {
+        stage(segment, entry);
+        commitStaged();
+    }
+
+    // Records one change; the journal records are handed to the writer by commitStaged().
+    private void stage(MonthSegment segment, Journal.Entry entry) {
+        if (unreadable.contains(segment.getMonth())) {
+            // neither journaled nor saved: the change was made against an empty stand-in for the month
+            IOException unsaved = notSaved(segment.getMonth());
+            writer.schedule("unsaved " + segment.getMonth(), () -> {
+                throw unsaved;
+            });
+            return;
+        }
+        if (journal == null) {
+            segment.markChanged(segment.getLastSeq());
+            YearMonth month = segment.getMonth();
+            writer.schedule("segment " + month, () -> writeSegment(month));
+            return;
+        }
+        segment.markChanged(Journal.sequence(generation, position++));
+        journalBuffer.add(entry);
+        recordsSinceCompaction++;
+    }
+
+    private void commitStaged() {
+        if (journal == null || journalBuffer.isEmpty()) {
+            return;
+        }
+        if (recordsSinceCompaction >= COMPACT_THRESHOLD) {
+            compact();
+        } else {
+            writer.schedule(JOURNAL_KEY, this::drainJournal);
+        }
+    }
+
+    private boolean isListed(MonthSegment segment, Task task) {
+        for (Task listed : listing(segment, task.getDate())) {
+            if (listed.getTimeSlot().equals(task.getTimeSlot()) && listed.getTaskName().equalsIgnoreCase(task.getTaskName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drainJournal() throws IOException {
+        List<Journal.Entry> entries;
+        writeLock.lock();
+        try {
+            entries = new ArrayList<>(journalBuffer);
+            journalBuffer.clear();
+        } finally {
+            writeLock.unlock();
+        }
+        journal.appendAll(entries);
+    }
+
+    // Rolls the journal over, then writes every changed month on the writer thread; the old
+    // logs are only deleted once all of those months have been forced to disk.
+    private void compact() {
+        // months with records from the previous session must be saved before their log goes
+        for (YearMonth month : new ArrayList<>(backlog.keySet())) {
+            segment(month);
+        }
+        // what is left belongs to unreadable months and exists only in the old logs
+        boolean discard = !keepLogs && backlog.isEmpty();
+        List<Journal.Entry> entries = new ArrayList<>(journalBuffer);
+        journalBuffer.clear();
+        recordsSinceCompaction = 0;
+        long closedGeneration = generation++;
+        position = 0;
+        writer.submit(() -> {
+            journal.appendAll(entries);
+            journal.rotate();
+            List<YearMonth> dirty = new ArrayList<>();
+            readLock.lock();
+            try {
+                for (MonthSegment segment : resident.values()) {
+                    if (segment.isDirty()) dirty.add(segment.getMonth());
+                }
+                for (MonthSegment segment : evicting.values()) {
+                    if (segment.isDirty()) dirty.add(segment.getMonth());
+                }
+            } finally {
+                readLock.unlock();
+            }
+            for (YearMonth month : dirty) {
+                writeSegment(month);
+            }
+            if (discard) {
+                // writeSegment forces what it writes; this covers the files it deleted
+                ScheduleCodec.syncDirectory(dataDir.toPath());
+                journal.discardUpTo(closedGeneration);
+            }
+        });
+    }
+
+    // Runs on the writer thread: encodes under the write lock, writes the file outside it.
+    private void writeSegment(YearMonth month) throws IOException {
+        MonthSegment segment;
+        ScheduleCodec.Encoder encoded = null;
+        writeLock.lock();
+        try {
+            segment = resident.containsKey(month) ? resident.get(month) : evicting.get(month);
+            if (segment == null || !segment.isDirty()) {
+                return;
+            }
+            if (unreadable.contains(month)) {
+                throw notSaved(month);
+            }
+            if (!segment.isEmpty()) {
+                encoded = ScheduleCodec.encodeSegment(segment);
+            }
+            segment.markSaved(segment.getLastSeq());
+            writing.add(month);
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            if (encoded != null) {
+                encoded.writeTo(segmentFile(month));
+            } else {
+                Files.deleteIfExists(segmentFile(month));
+            }
+        } catch (IOException e) {
+            writeLock.lock();
+            try {
+                writing.remove(month);
+                segment.markChanged(segment.getLastSeq());
+            } finally {
+                writeLock.unlock();
+            }
+            throw e;
+        }
+        writeLock.lock();
+        try {
+            writing.remove(month);
+            segmentWrites++;
+            if (encoded != null) {
+                storedMonths.add(month);
+            } else {
+                storedMonths.remove(month);
+            }
+            if (!segment.isDirty()) {
+                evicting.remove(month, segment);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private Path segmentFile(YearMonth month) {
+        return new File(dataDir, month + SEGMENT_SUFFIX).toPath();
+    }
+
+    private Path seriesFile() {
+        return new File(dataDir, SERIES_FILE).toPath();
     }
 
     private void loadData() {
-        tasks = (List<Task>) loadFromFile(TASKS_FILE);
-        if (tasks == null) tasks = new ArrayList<>();
+        dataDir.mkdirs();
+        String[] names = dataDir.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.endsWith(SEGMENT_SUFFIX)) {
+                    try {
+                        storedMonths.add(YearMonth.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (RuntimeException ignored) {
+                    }
+                }
+            }
+        }
+
+        try {
+            ScheduleCodec.Snapshot<List<RecurringTask>> saved = ScheduleCodec.readSeries(seriesFile());
+            if (saved != null) {
+                for (RecurringTask task : saved.data()) {
+                    series.put(task.getId(), task);
+                    ids.observe(task.getId());
+                    index(task, true);
+                }
+            }
+        } catch (IOException e) {
+            seriesUnread = true;
+            writer.report(new IOException("Could not read " + seriesFile() + ": " + e.getMessage()
+                    + ". Recurring tasks are not shown and the file is left as it is.", e));
+        }
+
+        List<Replayed> replayed = new ArrayList<>();
+        if (journal != null) {
+            try {
+                journal.replay(0, (seq, entry) -> replayed.add(new Replayed(seq, entry)),
+                        e -> writer.report(new IOException("Could not replay all of the journal: " + e.getMessage()
+                                + ". The last change made before the app closed may be missing.", e)));
+            } catch (IOException e) {
+                keepLogs = true;
+                writer.report(new IOException("Could not replay the journal: " + e.getMessage()
+                        + ". Recent changes may be missing; the journal files are kept.", e));
+            }
+            generation = journal.getGeneration();
+        }
 
-        priorities = (Map<String, List<PriorityItem>>) loadFromFile(PRIORITIES_FILE);
-        if (priorities == null) priorities = new HashMap<>();
+        if (new File(home, TASKS_FILE).exists() || new File(home, PRIORITIES_FILE).exists() || new File(home, TODOS_FILE).exists()) {
+            migrateSingleFiles(replayed);
+        } else {
+            for (Replayed r : replayed) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(r.entry().epochDay()));
+                backlog.computeIfAbsent(month, m -> new ArrayList<>()).add(r);
+            }
+            recordsSinceCompaction = replayed.size();
+        }
+        unindexedMonths.addAll(storedMonths);
+        unindexedMonths.addAll(backlog.keySet());
+        if (recordsSinceCompaction >= COMPACT_THRESHOLD) {
+            compact();
+        }
+    }
+
+    // One-time split of tasks.dat, priorities.dat and todos.dat (plus journal records newer
+    // than each of them) into month segments. The old files are kept with a .bak suffix.
+    private void migrateSingleFiles(List<Replayed> replayed) {
+        // the three files are independent, so read them in parallel
+        CompletableFuture<ScheduleCodec.Snapshot<List<Task>>> tasksRead =
+                CompletableFuture.supplyAsync(() -> loadFromFile(TASKS_FILE, ScheduleCodec::readTasks));
+        CompletableFuture<ScheduleCodec.Snapshot<Map<String, List<PriorityItem>>>> prioritiesRead =
+                CompletableFuture.supplyAsync(() -> loadFromFile(PRIORITIES_FILE, ScheduleCodec::readPriorities));
+        CompletableFuture<ScheduleCodec.Snapshot<Map<String, List<TodoItem>>>> todosRead =
+                CompletableFuture.supplyAsync(() -> loadFromFile(TODOS_FILE, ScheduleCodec::readTodos));
+        ScheduleCodec.Snapshot<List<Task>> taskSnapshot = join(tasksRead);
+        ScheduleCodec.Snapshot<Map<String, List<PriorityItem>>> prioritySnapshot = join(prioritiesRead);
+        ScheduleCodec.Snapshot<Map<String, List<TodoItem>>> todoSnapshot = join(todosRead);
+
+        Map<YearMonth, MonthSegment> months = new TreeMap<>();
+        if (taskSnapshot != null) {
+            for (Task task : taskSnapshot.data()) {
+                months.computeIfAbsent(YearMonth.from(task.getDate()), MonthSegment::new).addTask(task);
+            }
+        }
+        if (prioritySnapshot != null) {
+            prioritySnapshot.data().forEach((key, list) -> {
+                LocalDate date = LocalDate.parse(key);
+                months.computeIfAbsent(YearMonth.from(date), MonthSegment::new).addPriorities(date, list);
+            });
+        }
+        if (todoSnapshot != null) {
+            todoSnapshot.data().forEach((key, list) -> {
+                LocalDate date = LocalDate.parse(key);
+                months.computeIfAbsent(YearMonth.from(date), MonthSegment::new).addTodos(date, list);
+            });
+        }
+
+        // a snapshot of generation G already contains every record of logs <= G
+        long tasksGeneration = taskSnapshot == null ? 0 : taskSnapshot.generation();
+        long prioritiesGeneration = prioritySnapshot == null ? 0 : prioritySnapshot.generation();
+        long todosGeneration = todoSnapshot == null ? 0 : todoSnapshot.generation();
+        for (Replayed r : replayed) {
+            long covered = switch (r.entry().op()) {
+                case ADD_TASK, DELETE_TASK, COMPLETE_TASK -> tasksGeneration;
+                case ADD_PRIORITY, DELETE_PRIORITY -> prioritiesGeneration;
+                case ADD_TODO, DELETE_TODO, COMPLETE_TODO -> todosGeneration;
+            };
+            if (Journal.generationOf(r.seq()) > covered) {
+                YearMonth month = YearMonth.from(LocalDate.ofEpochDay(r.entry().epochDay()));
+                apply(months.computeIfAbsent(month, MonthSegment::new), r.entry());
+            }
+        }
+
+        try {
+            // every record replayed above is now part of a segment
+            long seq = Math.max(0, Journal.sequence(generation, 0) - 1);
+            for (MonthSegment segment : months.values()) {
+                if (!segment.isEmpty()) {
+                    segment.assignMissingIds(ids);
+                    segment.markSaved(seq);
+                    ScheduleCodec.encodeSegment(segment).writeTo(segmentFile(segment.getMonth()));
+                    storedMonths.add(segment.getMonth());
+                }
+            }
+            for (String name : new String[] { TASKS_FILE, PRIORITIES_FILE, TODOS_FILE }) {
+                File file = new File(home, name);
+                if (file.exists()) {
+                    Files.move(file.toPath(), new File(home, name + ".bak").toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            // carrying on would mix old and new layouts; the old files are untouched so a restart retries
+            throw new UncheckedIOException("Could not migrate schedule data to " + dataDir, e);
+        }
+        if (journal != null && !keepLogs) {
+            journal.discardUpTo(generation - 1);
+        }
+    }
+
+    // Applies a journal record to a month without persisting it again.
+    private static void apply(MonthSegment segment, Journal.Entry entry) {
+        LocalDate date = LocalDate.ofEpochDay(entry.epochDay());
+        switch (entry.op()) {
+            case ADD_TASK -> {
+                Task task = new Task(date, entry.slot(), entry.text(), entry.description());
+                task.setId(entry.id());
+                task.setCompleted(entry.flag());
+                segment.addTask(task);
+            }
+            case DELETE_TASK -> {
+                DaySchedule day = segment.tasksOn(date);
+                if (day != null && entry.index() < day.size()) {
+                    segment.removeTask(day.get(entry.index()));
+                }
+            }
+            case COMPLETE_TASK -> {
+                DaySchedule day = segment.tasksOn(date);
+                if (day != null && entry.index() < day.size()) {
+                    day.get(entry.index()).setCompleted(entry.flag());
+                }
+            }
+            case ADD_PRIORITY -> {
+                PriorityItem priority = new PriorityItem(entry.taskId(), entry.text());
+                priority.setId(entry.id());
+                segment.addPriority(date, priority);
+            }
+            case DELETE_PRIORITY -> segment.removePriority(date, entry.index());
+            case ADD_TODO -> {
+                TodoItem todo = new TodoItem(entry.text());
+                todo.setId(entry.id());
+                todo.setCompleted(entry.flag());
+                segment.addTodo(date, todo);
+            }
+            case DELETE_TODO -> segment.removeTodo(date, entry.index());
+            case COMPLETE_TODO -> {
+                List<TodoItem> list = segment.todosOn(date);
+                if (entry.index() < list.size()) {
+                    list.get(entry.index()).setCompleted(entry.flag());
+                }
+            }
+        }
+    }
 
-        todos = (Map<String, List<TodoItem>>) loadFromFile(TODOS_FILE);
-        if (todos == null) todos = new HashMap<>();
+    private interface SnapshotReader<T> {
+        ScheduleCodec.Snapshot<T> read(Path file) throws IOException;
     }
 
-    private void saveToFile(String filename, Object data) {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(data);
+    // A file that cannot be read stops the migration, like a failed write does: migrating without
+    // it would move it aside as if its data had been carried over.
+    private <T> ScheduleCodec.Snapshot<T> loadFromFile(String filename, SnapshotReader<T> reader) {
+        File file = new File(home, filename);
+        try {
+            return reader.read(file.toPath());
         } catch (IOException e) {
-            e.printStackTrace();
+            throw new UncheckedIOException("Could not read " + file + " to migrate it", e);
         }
     }
 
-    private Object loadFromFile(String filename) {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            return ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
-            return null;
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
     }
 }
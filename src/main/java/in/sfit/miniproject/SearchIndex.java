@@ -0,0 +1,113 @@
+package in.sfit.miniproject;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.LongFunction;
+
+// Inverted index from lower-cased words to the days they appear on. Terms are kept sorted so a
+// query word matches every indexed word it is a prefix of ("dat" finds "database"). Each posting
+// counts occurrences so removing one of two tasks with the same word keeps the day. Recurring
+// tasks are indexed once by series id and turned into days only when a query matches them.
+class SearchIndex {
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final NavigableMap<String, Map<Long, Integer>> seriesPostings = new TreeMap<>();
+
+    void add(LocalDate date, String text) {
+        add(postings, date.toEpochDay(), text);
+    }
+
+    void remove(LocalDate date, String text) {
+        remove(postings, date.toEpochDay(), text);
+    }
+
+    void addSeries(long seriesId, String text) {
+        add(seriesPostings, seriesId, text);
+    }
+
+    void removeSeries(long seriesId, String text) {
+        remove(seriesPostings, seriesId, text);
+    }
+
+    // Days on which every word of the query matches, oldest first. seriesDays gives the epoch days
+    // a recurring task whose text matches occurs on.
+    NavigableSet<LocalDate> search(String query, LongFunction<Set<Long>> seriesDays) {
+        Set<Long> matches = null;
+        Map<Long, Set<Long>> expanded = new HashMap<>();
+        for (String word : tokenize(query)) {
+            Set<Long> days = new HashSet<>();
+            for (Map<Long, Integer> postingDays : prefixed(postings, word)) {
+                days.addAll(postingDays.keySet());
+            }
+            for (Map<Long, Integer> postingSeries : prefixed(seriesPostings, word)) {
+                for (long id : postingSeries.keySet()) {
+                    days.addAll(expanded.computeIfAbsent(id, seriesDays::apply));
+                }
+            }
+            if (matches == null) {
+                matches = days;
+            } else {
+                matches.retainAll(days);
+            }
+            if (matches.isEmpty()) {
+                break;
+            }
+        }
+        NavigableSet<LocalDate> result = new TreeSet<>();
+        if (matches != null) {
+            for (long day : matches) {
+                result.add(LocalDate.ofEpochDay(day));
+            }
+        }
+        return result;
+    }
+
+    private static Collection<Map<Long, Integer>> prefixed(NavigableMap<String, Map<Long, Integer>> index, String word) {
+        return index.subMap(word, true, word + Character.MAX_VALUE, false).values();
+    }
+
+    private static void add(NavigableMap<String, Map<Long, Integer>> index, long key, String text) {
+        for (String term : tokenize(text)) {
+            index.computeIfAbsent(term, t -> new HashMap<>()).merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static void remove(NavigableMap<String, Map<Long, Integer>> index, long key, String text) {
+        for (String term : tokenize(text)) {
+            Map<Long, Integer> keys = index.get(term);
+            if (keys != null) {
+                keys.computeIfPresent(key, (k, count) -> count == 1 ? null : count - 1);
+                if (keys.isEmpty()) {
+                    index.remove(term);
+                }
+            }
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                terms.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,119 @@
+package in.sfit.miniproject;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Finds free time by keeping one bit per minute for each day looked at; a busy minute is a set bit.
+// Days are read from the manager once and then updated in place as windows are reserved, so
+// planning across a whole semester is a few word scans per day.
+class SlotFinder {
+    private final ScheduleManager manager;
+    private final Map<LocalDate, BitSet> days = new HashMap<>();
+
+    record FreeWindow(LocalDate date, int startMinute, int endMinute) {
+        int length() { return endMinute - startMinute; }
+    }
+
+    SlotFinder(ScheduleManager manager) {
+        this.manager = manager;
+    }
+
+    // All free windows of at least minLength minutes between dayStart and dayEnd on each day.
+    List<FreeWindow> freeWindows(LocalDate from, LocalDate to, int minLength, int dayStart, int dayEnd) {
+        List<FreeWindow> windows = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            BitSet busy = occupancy(date);
+            int minute = dayStart;
+            while (minute < dayEnd) {
+                int free = busy.nextClearBit(minute);
+                if (free >= dayEnd) {
+                    break;
+                }
+                int next = busy.nextSetBit(free);
+                int end = next < 0 ? dayEnd : Math.min(next, dayEnd);
+                if (end - free >= minLength) {
+                    windows.add(new FreeWindow(date, free, end));
+                }
+                minute = end;
+            }
+        }
+        return windows;
+    }
+
+    // Earliest window of exactly length minutes, or null when the range is fully booked.
+    FreeWindow findFirst(LocalDate from, LocalDate to, int length, int dayStart, int dayEnd) {
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            int start = findInDay(occupancy(date), length, dayStart, dayEnd);
+            if (start >= 0) {
+                return new FreeWindow(date, start, start + length);
+            }
+        }
+        return null;
+    }
+
+    // Places each unfinished to-do into the earliest free window and returns the tasks created,
+    // in to-do order. Nothing is added to the manager; the caller decides what to keep.
+    // firstDayStart lets planning for today skip the part of the day that has already passed.
+    List<Task> autoSchedule(List<TodoItem> todos, LocalDate from, LocalDate to, int duration,
+                            int dayStart, int dayEnd, int firstDayStart) {
+        List<Task> placed = new ArrayList<>();
+        LocalDate date = from;
+        for (TodoItem todo : todos) {
+            if (todo.isCompleted()) {
+                continue;
+            }
+            int start = -1;
+            // earlier days are already full for this duration, so carry on from where the last one went
+            for (; !date.isAfter(to); date = date.plusDays(1)) {
+                int earliest = date.equals(from) ? Math.max(dayStart, firstDayStart) : dayStart;
+                start = findInDay(occupancy(date), duration, earliest, dayEnd);
+                if (start >= 0) {
+                    break;
+                }
+            }
+            if (start < 0) {
+                break;
+            }
+            reserve(date, start, start + duration);
+            placed.add(new Task(date, start, start + duration, todo.getText(), ""));
+        }
+        return placed;
+    }
+
+    void reserve(LocalDate date, int startMinute, int endMinute) {
+        occupancy(date).set(startMinute, endMinute);
+    }
+
+    private BitSet occupancy(LocalDate date) {
+        return days.computeIfAbsent(date, d -> {
+            BitSet busy = new BitSet(TimeSlots.MINUTES_PER_DAY);
+            for (Task task : manager.getTasksForDate(d)) {
+                if (task.hasTimeRange()) {
+                    busy.set(task.getStartMinute(), task.getEndMinute());
+                }
+            }
+            return busy;
+        });
+    }
+
+    private static int findInDay(BitSet busy, int length, int dayStart, int dayEnd) {
+        int minute = dayStart;
+        while (minute + length <= dayEnd) {
+            int free = busy.nextClearBit(minute);
+            int next = busy.nextSetBit(free);
+            int end = next < 0 ? dayEnd : Math.min(next, dayEnd);
+            if (end - free >= length) {
+                return free;
+            }
+            if (next < 0) {
+                return -1;
+            }
+            minute = next;
+        }
+        return -1;
+    }
+}
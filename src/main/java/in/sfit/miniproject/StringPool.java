@@ -0,0 +1,43 @@
+package in.sfit.miniproject;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+// Canonical instances of the strings that repeat across items: time slots, course names and the
+// priority and to-do texts copied from them. Every item built from a file, the journal or a dialog
+// goes through here, so each distinct value is held once. Entries are weak and disappear once no
+// item uses the value.
+final class StringPool {
+    private static final Map<String, WeakReference<String>> POOL = new WeakHashMap<>();
+    // -Dplanner.stringPool=false leaves every string as it came, to measure what pooling saves
+    private static final boolean ENABLED = !"false".equals(System.getProperty("planner.stringPool"));
+
+    private StringPool() {
+    }
+
+    static String intern(String value) {
+        if (value == null || !ENABLED) {
+            return value;
+        }
+        if (value.isEmpty()) {
+            return "";
+        }
+        synchronized (POOL) {
+            WeakReference<String> ref = POOL.get(value);
+            String canonical = ref == null ? null : ref.get();
+            if (canonical == null) {
+                POOL.put(value, new WeakReference<>(value));
+                canonical = value;
+            }
+            return canonical;
+        }
+    }
+
+    // Distinct values currently pooled, including ones about to be collected.
+    static int size() {
+        synchronized (POOL) {
+            return POOL.size();
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package in.sfit.miniproject;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.time.LocalDate;
 
-class Task implements Serializable {
+class Task implements Serializable, Identified {
     private static final long serialVersionUID = 1L;
+    private long id;
+    // the recurring task this is an occurrence of, 0 for a one-off task
+    private long seriesId;
     private LocalDate date;
+    // display form of the slot; free text only for old data that does not parse as a range
     private String timeSlot;
+    private int startMinute;
+    private int endMinute;
     private String taskName;
     private String description;
     private boolean completed;
@@ -14,15 +22,49 @@ class Task implements Serializable {
     public Task(LocalDate date, String timeSlot, String taskName, String description) {
         this.date = date;
         this.timeSlot = timeSlot;
-        this.taskName = taskName;
+        this.taskName = StringPool.intern(taskName);
         this.description = description;
         this.completed = false;
+        parseTimeSlot();
     }
 
+    public Task(LocalDate date, int startMinute, int endMinute, String taskName, String description) {
+        this(date, TimeSlots.format(startMinute, endMinute), taskName, description);
+    }
+
+    public long getId() { return id; }
+    void setId(long id) { this.id = id; }
+    public long getSeriesId() { return seriesId; }
+    void setSeriesId(long seriesId) { this.seriesId = seriesId; }
+    public boolean isOccurrence() { return seriesId != 0; }
     public LocalDate getDate() { return date; }
     public String getTimeSlot() { return timeSlot; }
+    public int getStartMinute() { return startMinute; }
+    public int getEndMinute() { return endMinute; }
+    public boolean hasTimeRange() { return endMinute > startMinute; }
     public String getTaskName() { return taskName; }
     public String getDescription() { return description; }
     public boolean isCompleted() { return completed; }
     public void setCompleted(boolean completed) { this.completed = completed; }
-}
\ No newline at end of file
+
+    public boolean overlaps(int start, int end) {
+        return startMinute < end && start < endMinute;
+    }
+
+    private void parseTimeSlot() {
+        int[] range = TimeSlots.parse(timeSlot);
+        if (range != null) {
+            startMinute = range[0];
+            endMinute = range[1];
+            timeSlot = TimeSlots.format(startMinute, endMinute);
+        }
+        timeSlot = StringPool.intern(timeSlot);
+    }
+
+    // Java-serialized tasks from before slots were structured only carry the text.
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        taskName = StringPool.intern(taskName);
+        parseTimeSlot();
+    }
+}
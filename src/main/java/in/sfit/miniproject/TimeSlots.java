@@ -0,0 +1,54 @@
+package in.sfit.miniproject;
+
+// Time slots are half-open [start, end) ranges in minutes since midnight, shown as "09:00 - 10:00".
+final class TimeSlots {
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    private TimeSlots() {
+    }
+
+    // Accepts "9:30-10:15", "09:30 - 10:15" and similar; returns {start, end} or null when the
+    // text is not a time range or the range is empty.
+    static int[] parse(String slot) {
+        if (slot == null) {
+            return null;
+        }
+        int dash = slot.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        int start = parseTime(slot.substring(0, dash).trim());
+        int end = parseTime(slot.substring(dash + 1).trim());
+        if (start < 0 || end < 0 || end <= start) {
+            return null;
+        }
+        return new int[] { start, end };
+    }
+
+    static String format(int start, int end) {
+        return formatTime(start) + " - " + formatTime(end);
+    }
+
+    // Built by hand: this runs for every task read from disk, where String.format showed up.
+    static String formatTime(int minute) {
+        int hours = minute / 60;
+        int minutes = minute % 60;
+        return new String(new char[] {
+                (char) ('0' + hours / 10), (char) ('0' + hours % 10), ':', (char) ('0' + minutes / 10), (char) ('0' + minutes % 10) });
+    }
+
+    private static int parseTime(String time) {
+        int colon = time.indexOf(':');
+        if (colon < 1 || colon > 2 || time.length() != colon + 3) {
+            return -1;
+        }
+        try {
+            int hours = Integer.parseInt(time.substring(0, colon));
+            int minutes = Integer.parseInt(time.substring(colon + 1));
+            int total = hours * 60 + minutes;
+            return hours < 0 || minutes < 0 || minutes > 59 || total > MINUTES_PER_DAY ? -1 : total;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
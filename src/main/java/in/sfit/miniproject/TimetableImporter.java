@@ -0,0 +1,539 @@
+package in.sfit.miniproject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.ResolverStyle;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Reads a timetable from a CSV or iCalendar file into the schedule. Files are read a record at a
+// time; rows that do not make a valid task are reported by line and the rest still go in. All
+// one-off tasks of a file are added with one ScheduleManager.addTasks call, which also drops
+// the ones already on the schedule.
+//
+// CSV needs a header row naming its columns: date (2024-09-02 or 2/9/2024), start and end
+// (09:00) or a single time slot (09:00 - 10:00), name, and optionally description. Rows with a
+// kind other than task are passed over. Quoted fields may contain commas, quotes ("") and line
+// breaks.
+//
+// iCalendar events become tasks in the local time zone. Weekly and daily RRULEs become recurring
+// tasks, with EXDATEs skipped and changed occurrences (RECURRENCE-ID) added as one-off tasks in
+// place of the original. All-day events, events spanning midnight and other rules are reported.
+final class TimetableImporter {
+    // problems kept for the report; the rest are only counted
+    private static final int MAX_PROBLEMS = 20;
+    private static final DateTimeFormatter DAY_MONTH_YEAR = DateTimeFormatter.ofPattern("d/M/uuuu")
+            .withResolverStyle(ResolverStyle.STRICT);
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("uuuuMMdd'T'HHmmss");
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+
+    record Result(int tasksAdded, int seriesAdded, int duplicates, int rejected, List<String> problems) {
+        String summary() {
+            StringBuilder text = new StringBuilder("Imported " + tasksAdded + " task" + (tasksAdded == 1 ? "" : "s"));
+            if (seriesAdded > 0) {
+                text.append(" and ").append(seriesAdded).append(" repeating task").append(seriesAdded == 1 ? "" : "s");
+            }
+            text.append('.');
+            if (duplicates > 0) {
+                text.append(" Skipped ").append(duplicates).append(" already on your schedule.");
+            }
+            if (rejected > 0) {
+                text.append(' ').append(rejected).append(" could not be imported:");
+                for (String problem : problems) {
+                    text.append("\n  ").append(problem);
+                }
+                if (rejected > problems.size()) {
+                    text.append("\n  ...and ").append(rejected - problems.size()).append(" more");
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    private final ScheduleManager manager;
+    private final List<Task> tasks = new ArrayList<>();
+    private final List<String> problems = new ArrayList<>();
+    private int rejected;
+    private int seriesAdded;
+    private int seriesDuplicates;
+
+    private TimetableImporter(ScheduleManager manager) {
+        this.manager = manager;
+    }
+
+    static boolean isCalendar(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(".ics") || name.endsWith(".ical") || name.endsWith(".icalendar");
+    }
+
+    static Result importFile(ScheduleManager manager, Path file) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return isCalendar(file) ? importCalendar(manager, in) : importCsv(manager, in);
+        }
+    }
+
+    static Result importCsv(ScheduleManager manager, Reader in) throws IOException {
+        TimetableImporter importer = new TimetableImporter(manager);
+        importer.readCsv(in);
+        return importer.finish();
+    }
+
+    static Result importCalendar(ScheduleManager manager, BufferedReader in) throws IOException {
+        TimetableImporter importer = new TimetableImporter(manager);
+        importer.readCalendar(in);
+        return importer.finish();
+    }
+
+    private Result finish() {
+        int added = tasks.isEmpty() ? 0 : manager.addTasks(tasks).size();
+        return new Result(added, seriesAdded, tasks.size() - added + seriesDuplicates, rejected, List.copyOf(problems));
+    }
+
+    private void reject(int line, String problem) {
+        if (rejected++ < MAX_PROBLEMS) {
+            problems.add("line " + line + ": " + problem);
+        }
+    }
+
+    private void readCsv(Reader in) throws IOException {
+        CsvReader csv = new CsvReader(in);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+            String column = switch (name) {
+                case "date", "day" -> "date";
+                case "start", "start time", "from" -> "start";
+                case "end", "end time", "to" -> "end";
+                case "time", "time slot", "slot" -> "slot";
+                case "name", "task", "title", "subject", "course", "summary" -> "name";
+                case "description", "notes", "details" -> "description";
+                case "kind", "type" -> "kind";
+                default -> null;
+            };
+            if (column != null) {
+                columns.putIfAbsent(column, i);
+            }
+        }
+        if (!columns.containsKey("date") || !columns.containsKey("name")
+                || !(columns.containsKey("slot") || (columns.containsKey("start") && columns.containsKey("end")))) {
+            reject(1, "the header must name date, name and either start and end or time slot columns");
+            return;
+        }
+        for (List<String> row = csv.next(); row != null; row = csv.next()) {
+            if (row.size() == 1 && row.get(0).isBlank()) {
+                continue;
+            }
+            String kind = field(row, columns, "kind");
+            if (!kind.isEmpty() && !kind.equalsIgnoreCase("task")) {
+                // priorities and to-dos in a file written by ScheduleExporter
+                continue;
+            }
+            int line = csv.recordLine();
+            LocalDate date = parseDate(field(row, columns, "date"));
+            String slot = columns.containsKey("slot") ? field(row, columns, "slot")
+                    : field(row, columns, "start") + " - " + field(row, columns, "end");
+            int[] range = TimeSlots.parse(slot);
+            String name = field(row, columns, "name");
+            if (date == null) {
+                reject(line, "\"" + field(row, columns, "date") + "\" is not a date");
+            } else if (range == null) {
+                reject(line, "\"" + slot + "\" is not a time range like 09:00 - 10:00");
+            } else if (name.isEmpty()) {
+                reject(line, "the task has no name");
+            } else {
+                tasks.add(new Task(date, range[0], range[1], name, field(row, columns, "description")));
+            }
+        }
+    }
+
+    private static String field(List<String> row, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        return index == null || index >= row.size() ? "" : row.get(index).trim();
+    }
+
+    private static LocalDate parseDate(String text) {
+        try {
+            return text.indexOf('/') >= 0 ? LocalDate.parse(text, DAY_MONTH_YEAR) : LocalDate.parse(text);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    // RFC 4180 records, one at a time.
+    private static final class CsvReader {
+        private final Reader in;
+        private int line = 1;
+        private int recordLine;
+        private int peeked = -2;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        // Line on which the record last returned by next() starts.
+        int recordLine() {
+            return recordLine;
+        }
+
+        List<String> next() throws IOException {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (; c >= 0; c = read()) {
+                if (quoted) {
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            field.append('"');
+                            read();
+                        } else {
+                            quoted = false;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r') {
+                    if (c == '\r' && peek() == '\n') {
+                        read();
+                    }
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        private int read() throws IOException {
+            int c = peeked != -2 ? peeked : in.read();
+            peeked = -2;
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+
+        private int peek() throws IOException {
+            if (peeked == -2) {
+                peeked = in.read();
+            }
+            return peeked;
+        }
+    }
+
+    // One VEVENT as read; times are already in the local zone.
+    private static final class Event {
+        int line;
+        String uid;
+        LocalDateTime start;
+        LocalDateTime end;
+        Duration duration;
+        boolean allDay;
+        String summary = "";
+        String description = "";
+        String rule;
+        final List<LocalDate> exceptions = new ArrayList<>();
+        LocalDate recurrenceId;
+        boolean cancelled;
+    }
+
+    private void readCalendar(BufferedReader in) throws IOException {
+        Map<String, RecurringTask> seriesByUid = new HashMap<>();
+        List<Event> changed = new ArrayList<>();
+        Event event = null;
+        // a property may be folded onto following lines that start with a space or tab
+        String property = null;
+        int propertyLine = 0;
+        int lineNumber = 0;
+        for (String line = in.readLine(); ; line = in.readLine()) {
+            lineNumber++;
+            if (line != null && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t') && property != null) {
+                property += line.substring(1);
+                continue;
+            }
+            if (property != null) {
+                if (property.equalsIgnoreCase("BEGIN:VEVENT")) {
+                    event = new Event();
+                    event.line = propertyLine;
+                } else if (property.equalsIgnoreCase("END:VEVENT") && event != null) {
+                    if (event.recurrenceId != null) {
+                        changed.add(event);
+                    } else {
+                        addEvent(event, seriesByUid);
+                    }
+                    event = null;
+                } else if (event != null) {
+                    try {
+                        readProperty(event, property);
+                    } catch (DateTimeException | IllegalArgumentException e) {
+                        reject(propertyLine, "cannot read " + property);
+                        event = null;
+                    }
+                }
+            }
+            if (line == null) {
+                break;
+            }
+            property = line;
+            propertyLine = lineNumber;
+        }
+        for (Event change : changed) {
+            RecurringTask original = seriesByUid.get(change.uid);
+            if (original != null && original.occursOn(change.recurrenceId)) {
+                if (original.getId() == 0) {
+                    original.skip(change.recurrenceId);
+                } else {
+                    manager.deleteTask(original.occurrence(change.recurrenceId));
+                }
+            }
+            if (!change.cancelled) {
+                addEvent(change, seriesByUid);
+            }
+        }
+        for (RecurringTask recurring : seriesByUid.values()) {
+            if (recurring.getId() == 0) {
+                manager.addRecurringTask(recurring);
+                seriesAdded++;
+            }
+        }
+    }
+
+    private static void readProperty(Event event, String property) {
+        int colon = valueStart(property);
+        if (colon < 0) {
+            return;
+        }
+        String[] head = property.substring(0, colon).split(";");
+        String name = head[0].toUpperCase(Locale.ROOT);
+        String value = property.substring(colon + 1);
+        Map<String, String> params = new HashMap<>();
+        for (int i = 1; i < head.length; i++) {
+            int eq = head[i].indexOf('=');
+            if (eq > 0) {
+                params.put(head[i].substring(0, eq).toUpperCase(Locale.ROOT), head[i].substring(eq + 1).replace("\"", ""));
+            }
+        }
+        switch (name) {
+            case "UID" -> event.uid = value;
+            case "SUMMARY" -> event.summary = unescape(value).trim();
+            case "DESCRIPTION" -> event.description = unescape(value).trim();
+            case "STATUS" -> event.cancelled = value.equalsIgnoreCase("CANCELLED");
+            case "RRULE" -> event.rule = value;
+            case "DURATION" -> event.duration = Duration.parse(value);
+            case "DTSTART" -> {
+                event.allDay = isDate(value, params);
+                event.start = dateTime(value, params);
+            }
+            case "DTEND" -> event.end = dateTime(value, params);
+            case "RECURRENCE-ID" -> event.recurrenceId = dateTime(value, params).toLocalDate();
+            case "EXDATE" -> {
+                for (String date : value.split(",")) {
+                    event.exceptions.add(dateTime(date, params).toLocalDate());
+                }
+            }
+            default -> { }
+        }
+    }
+
+    // The colon ending the name and parameters; colons inside quoted parameter values do not count.
+    private static int valueStart(String property) {
+        boolean quoted = false;
+        for (int i = 0; i < property.length(); i++) {
+            char c = property.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDate(String value, Map<String, String> params) {
+        return "DATE".equalsIgnoreCase(params.get("VALUE")) || value.indexOf('T') < 0;
+    }
+
+    // A DATE or DATE-TIME value in the local zone: UTC and TZID times are converted, floating
+    // times are taken as they are.
+    private static LocalDateTime dateTime(String value, Map<String, String> params) {
+        if (isDate(value, params)) {
+            return LocalDate.parse(value, ICS_DATE).atStartOfDay();
+        }
+        ZoneId zone = null;
+        if (value.endsWith("Z")) {
+            value = value.substring(0, value.length() - 1);
+            zone = ZoneOffset.UTC;
+        } else if (params.containsKey("TZID")) {
+            try {
+                zone = ZoneId.of(params.get("TZID"));
+            } catch (DateTimeException e) {
+                // a zone only the producing calendar knows; keep the wall-clock time
+            }
+        }
+        LocalDateTime time = LocalDateTime.parse(value, ICS_DATE_TIME);
+        return zone == null ? time : time.atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private static String unescape(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                out.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private void addEvent(Event event, Map<String, RecurringTask> seriesByUid) {
+        if (event.cancelled) {
+            return;
+        }
+        if (event.start == null) {
+            reject(event.line, "the event has no start");
+            return;
+        }
+        if (event.allDay) {
+            reject(event.line, "\"" + event.summary + "\" is an all-day event");
+            return;
+        }
+        LocalDateTime end = event.end != null ? event.end : event.duration != null ? event.start.plus(event.duration) : null;
+        if (end == null) {
+            reject(event.line, "\"" + event.summary + "\" has no end");
+            return;
+        }
+        LocalDate date = event.start.toLocalDate();
+        int startMinute = event.start.getHour() * 60 + event.start.getMinute();
+        int endMinute = end.toLocalDate().equals(date) ? end.getHour() * 60 + end.getMinute()
+                : end.equals(date.plusDays(1).atStartOfDay()) ? TimeSlots.MINUTES_PER_DAY : -1;
+        if (endMinute <= startMinute) {
+            reject(event.line, "\"" + event.summary + "\" does not start and end on the same day");
+            return;
+        }
+        if (event.summary.isEmpty()) {
+            reject(event.line, "the event has no summary");
+            return;
+        }
+        if (event.rule == null) {
+            tasks.add(new Task(date, startMinute, endMinute, event.summary, event.description));
+            return;
+        }
+        Recurrence recurrence;
+        try {
+            recurrence = recurrence(event.rule, date);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            reject(event.line, "\"" + event.summary + "\" repeats in a way the planner cannot: " + event.rule);
+            return;
+        }
+        RecurringTask existing = findSeries(recurrence, startMinute, endMinute, event.summary);
+        if (existing != null) {
+            seriesDuplicates++;
+            if (event.uid != null) {
+                seriesByUid.put(event.uid, existing);
+            }
+            return;
+        }
+        RecurringTask recurring = new RecurringTask(recurrence, startMinute, endMinute, event.summary, event.description);
+        for (LocalDate exception : event.exceptions) {
+            if (recurring.occursOn(exception)) {
+                recurring.skip(exception);
+            }
+        }
+        // events without a UID cannot have changed occurrences
+        seriesByUid.put(event.uid != null ? event.uid : "line " + event.line, recurring);
+    }
+
+    private RecurringTask findSeries(Recurrence recurrence, int startMinute, int endMinute, String name) {
+        for (RecurringTask recurring : manager.getRecurringTasks()) {
+            if (recurring.getRecurrence().equals(recurrence) && recurring.getStartMinute() == startMinute
+                    && recurring.getEndMinute() == endMinute && recurring.getTaskName().equalsIgnoreCase(name)) {
+                return recurring;
+            }
+        }
+        return null;
+    }
+
+    // FREQ=DAILY or WEEKLY with INTERVAL, BYDAY, UNTIL and COUNT; anything else is refused.
+    private static Recurrence recurrence(String rule, LocalDate start) {
+        Recurrence.Frequency frequency = null;
+        int interval = 1;
+        int weekdays = 0;
+        LocalDate until = null;
+        int count = 0;
+        for (String part : rule.split(";")) {
+            int eq = part.indexOf('=');
+            String name = eq < 0 ? part : part.substring(0, eq).toUpperCase(Locale.ROOT);
+            String value = eq < 0 ? "" : part.substring(eq + 1);
+            switch (name) {
+                case "FREQ" -> frequency = Recurrence.Frequency.valueOf(value.toUpperCase(Locale.ROOT));
+                case "INTERVAL" -> interval = Integer.parseInt(value);
+                case "COUNT" -> count = Integer.parseInt(value);
+                case "UNTIL" -> until = dateTime(value, Map.of()).toLocalDate();
+                case "BYDAY" -> {
+                    for (String day : value.split(",")) {
+                        weekdays |= Recurrence.weekdayBit(weekday(day));
+                    }
+                }
+                case "WKST" -> { }
+                default -> throw new IllegalArgumentException(name);
+            }
+        }
+        if (frequency == null) {
+            throw new IllegalArgumentException("FREQ");
+        }
+        if (frequency == Recurrence.Frequency.DAILY && weekdays != 0) {
+            // every day but only on some weekdays is a weekly rule
+            if (interval != 1) {
+                throw new IllegalArgumentException("BYDAY");
+            }
+            frequency = Recurrence.Frequency.WEEKLY;
+        }
+        return new Recurrence(frequency, interval, weekdays, start, until, count);
+    }
+
+    private static DayOfWeek weekday(String code) {
+        return switch (code.toUpperCase(Locale.ROOT)) {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            // includes ordinals like 1MO, which only monthly rules use
+            default -> throw new IllegalArgumentException(code);
+        };
+    }
+}
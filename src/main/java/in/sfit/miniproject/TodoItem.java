@@ -1,19 +1,29 @@
 package in.sfit.miniproject;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 
-class TodoItem implements Serializable {
+class TodoItem implements Serializable, Identified {
     private static final long serialVersionUID = 1L;
+    private long id;
     private String text;
     private boolean completed;
 
     public TodoItem(String text) {
-        this.text = text;
+        this.text = StringPool.intern(text);
         this.completed = false;
     }
 
+    public long getId() { return id; }
+    void setId(long id) { this.id = id; }
     public String getText() { return text; }
-    public void setText(String text) { this.text = text; }
+    public void setText(String text) { this.text = StringPool.intern(text); }
     public boolean isCompleted() { return completed; }
     public void setCompleted(boolean completed) { this.completed = completed; }
-}
\ No newline at end of file
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        text = StringPool.intern(text);
+    }
+}
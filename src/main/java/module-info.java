@@ -1,6 +1,8 @@
 module in.sfit.miniproject.miniproject {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
 
     opens in.sfit.miniproject to javafx.fxml;